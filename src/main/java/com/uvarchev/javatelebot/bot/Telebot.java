@@ -1,17 +1,32 @@
 package com.uvarchev.javatelebot.bot;
 
 import com.uvarchev.javatelebot.command.CommandProcessor;
+import com.uvarchev.javatelebot.dto.DeliveryResult;
 import com.uvarchev.javatelebot.dto.Reply;
+import com.uvarchev.javatelebot.service.CommandService;
 import com.uvarchev.javatelebot.service.ExceptionService;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Controller;
+import org.telegram.telegrambots.bots.DefaultBotOptions;
 import org.telegram.telegrambots.bots.TelegramLongPollingBot;
 import org.telegram.telegrambots.meta.api.methods.send.SendMessage;
+import org.telegram.telegrambots.meta.api.objects.Message;
 import org.telegram.telegrambots.meta.api.objects.Update;
 import org.telegram.telegrambots.meta.exceptions.TelegramApiException;
 import org.telegram.telegrambots.meta.exceptions.TelegramApiRequestException;
 
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.stream.Collectors;
+
 @Slf4j
 @Controller
 public class Telebot extends TelegramLongPollingBot {
@@ -20,15 +35,28 @@ public class Telebot extends TelegramLongPollingBot {
     private CommandProcessor commandProcessor;
     @Autowired
     private ExceptionService exceptionService;
+    @Autowired
+    private UpdateDispatcher updateDispatcher;
+    @Autowired
+    private CommandService commandService;
 
     private final TelebotConfig config;
+    private final Semaphore inFlightPermits;
+    // The latest reply sent to each user, while it is in flight
+    private final Map<Long, CompletableFuture<DeliveryResult>> pendingReplies = new ConcurrentHashMap<>();
 
-    public Telebot(TelebotConfig config) {
+    public Telebot(
+            TelebotConfig config,
+            @Value("${telebot.send.max-in-flight:16}") int maxInFlight
+    ) {
+        super(createOptions(maxInFlight), config.getBotToken());
         this.config = config;
+        this.inFlightPermits = new Semaphore(Math.max(1, maxInFlight));
     }
 
     /**
      * Receives an update from Telegram and sends a reply if the update has a message with text.
+     * The update is handled asynchronously, after all previous updates of the same user.
      *
      * @param update The update object from Telegram.
      */
@@ -36,12 +64,39 @@ public class Telebot extends TelegramLongPollingBot {
     public void onUpdateReceived(Update update) {
         // Check if the update has a message and the message has text
         if (update.hasMessage() && update.getMessage().hasText()) {
-            // Process the Update
-            Reply reply = commandProcessor.processUpdate(update);
+            updateDispatcher.dispatch(update.getMessage().getFrom().getId(), () -> {
+                // Process the Update
+                Reply reply = commandProcessor.processUpdate(update);
+
+                // Send the Reply
+                sendReplyInOrder(reply);
+            });
+        }
+    }
+
+    /**
+     * Receives a batch of updates from Telegram.
+     * Users who sent the updates are loaded from the database at once before the updates are handled.
+     *
+     * @param updates The batch of update objects from Telegram.
+     */
+    @Override
+    public void onUpdatesReceived(List<Update> updates) {
+        // Collect the senders of all text messages in the batch
+        Set<Long> userIds = updates.stream()
+                .filter(update -> update.hasMessage() && update.getMessage().hasText())
+                .map(update -> update.getMessage().getFrom().getId())
+                .collect(Collectors.toCollection(LinkedHashSet::new));
 
-            // Send the Reply
-            sendMessage(reply);
+        // Load the senders in a single query
+        try {
+            commandService.preloadUsers(userIds);
+        } catch (RuntimeException e) {
+            log.warn("Failed to preload users of an update batch. " + e.getMessage());
         }
+
+        // Handle each update
+        updates.forEach(this::onUpdateReceived);
     }
 
     /**
@@ -54,6 +109,18 @@ public class Telebot extends TelegramLongPollingBot {
      * @return true if the message was sent successfully, false otherwise
      */
     public boolean sendMessage(Reply reply) {
+        return sendMessageAsync(reply).join().isDelivered();
+    }
+
+    /**
+     * Sends a reply object to the user via Telegram without waiting for the response.
+     * The calling thread only waits while the maximum number of requests is already in flight.
+     * If sending has failed - the error is processed in Exception Service once the response arrives.
+     *
+     * @param reply the reply object to be sent
+     * @return a future completed with the outcome of sending, it never completes exceptionally
+     */
+    public CompletableFuture<DeliveryResult> sendMessageAsync(Reply reply) {
         SendMessage sendMessage = new SendMessage(
                 reply.getUserId().toString(),
                 reply.getMessageBody()
@@ -62,19 +129,84 @@ public class Telebot extends TelegramLongPollingBot {
                 reply.getMsgId()
         );
 
+        // Wait for a free in-flight slot
+        try {
+            inFlightPermits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return CompletableFuture.completedFuture(new DeliveryResult(reply, false));
+        }
+
+        CompletableFuture<Message> sending;
         try {
-            execute(sendMessage);
-            return true;
-        } catch (TelegramApiRequestException e) {
+            sending = executeAsync(sendMessage);
+        } catch (TelegramApiException | RuntimeException e) {
+            sending = CompletableFuture.failedFuture(e);
+        }
+
+        return sending.handle((message, error) -> {
+            inFlightPermits.release();
+            if (error == null) {
+                return new DeliveryResult(reply, true);
+            }
+            // The failure is still reported as undelivered if handling it fails
+            try {
+                handleSendingFailure(reply, error instanceof CompletionException ? error.getCause() : error);
+            } catch (RuntimeException e) {
+                log.error("Failed to handle sending failure of message to id " + reply.getUserId() + ". " + e.getMessage());
+            }
+            return new DeliveryResult(reply, false);
+        });
+    }
+
+    /**
+     * Sends a reply to an incoming update after the previous reply to the same user has been sent,
+     * so that replies arrive in the order the updates were handled.
+     *
+     * @param reply the reply object to be sent
+     */
+    private void sendReplyInOrder(Reply reply) {
+        Long userId = reply.getUserId();
+
+        // Replies to a user are sent from the same handler thread, so the previous one is already registered
+        CompletableFuture<DeliveryResult> previous = pendingReplies.get(userId);
+        if (previous != null) {
+            previous.join();
+        }
+
+        CompletableFuture<DeliveryResult> sending = sendMessageAsync(reply);
+        pendingReplies.put(userId, sending);
+        sending.whenComplete((result, error) -> pendingReplies.remove(userId, sending));
+    }
+
+    /**
+     * Processes an error of a failed sending attempt.
+     *
+     * @param reply the reply object that was not sent
+     * @param error the cause of the failure
+     */
+    private void handleSendingFailure(Reply reply, Throwable error) {
+        if (error instanceof TelegramApiRequestException e) {
             exceptionService.handleTelegramApiRequestException(
                     e.getErrorCode(), e.getApiResponse(), reply.getUserId()
             );
-        } catch (TelegramApiException e) {
+        } else {
             log.warn(
-                    "Failed to send message to id " + reply.getUserId() + ". " + e.getMessage()
+                    "Failed to send message to id " + reply.getUserId() + ". " + error.getMessage()
             );
         }
-        return false;
+    }
+
+    /**
+     * Creates bot options allowing as many concurrent requests as may be in flight.
+     *
+     * @param maxInFlight the maximum number of requests in flight
+     * @return the bot options
+     */
+    private static DefaultBotOptions createOptions(int maxInFlight) {
+        DefaultBotOptions options = new DefaultBotOptions();
+        options.setMaxThreads(Math.max(1, maxInFlight));
+        return options;
     }
 
     @Override
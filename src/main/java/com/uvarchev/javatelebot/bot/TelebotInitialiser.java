@@ -1,20 +1,30 @@
 package com.uvarchev.javatelebot.bot;
 
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.event.ContextRefreshedEvent;
 import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Component;
 import org.telegram.telegrambots.meta.TelegramBotsApi;
+import org.telegram.telegrambots.meta.api.methods.updates.SetWebhook;
 import org.telegram.telegrambots.meta.exceptions.TelegramApiException;
 import org.telegram.telegrambots.updatesreceivers.DefaultBotSession;
 
+@Slf4j
 @Component
 public class TelebotInitialiser {
     @Autowired
     Telebot bot;
+    @Autowired
+    WebhookConfig webhookConfig;
 
     @EventListener({ContextRefreshedEvent.class})
     public void init() throws TelegramApiException {
+        if (webhookConfig.isWebhookMode()) {
+            registerWebhook();
+            return;
+        }
+
         TelegramBotsApi api = new TelegramBotsApi(DefaultBotSession.class);
         try {
             api.registerBot(bot);
@@ -22,4 +32,25 @@ public class TelebotInitialiser {
             throw new RuntimeException(e);
         }
     }
+
+    /**
+     * Asks Telegram to push updates to this application's webhook endpoint instead of long polling.
+     */
+    private void registerWebhook() {
+        if (webhookConfig.getUrl().isEmpty() || webhookConfig.getSecretToken().isEmpty()) {
+            throw new IllegalStateException("Webhook mode requires telebot.webhook.url and telebot.webhook.secret-token");
+        }
+
+        SetWebhook setWebhook = SetWebhook.builder()
+                .url(webhookConfig.getUrl() + webhookConfig.getPath())
+                .secretToken(webhookConfig.getSecretToken())
+                .maxConnections(webhookConfig.getMaxConnections())
+                .build();
+        try {
+            bot.execute(setWebhook);
+        } catch (TelegramApiException e) {
+            throw new RuntimeException(e);
+        }
+        log.info("Webhook registered, updates are received at " + webhookConfig.getPath());
+    }
 }
@@ -0,0 +1,103 @@
+package com.uvarchev.javatelebot.bot;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.concurrent.*;
+
+/**
+ * A component that handles incoming updates off the long-polling thread.
+ * Updates are spread over single-threaded stripes by user id, so that different users are served
+ * in parallel while each user's updates are handled one after another, in the order they arrived.
+ * Once a stripe's queue is full, the polling thread waits, slowing down fetching of new updates.
+ */
+@Slf4j
+@Component
+public class UpdateDispatcher {
+
+    private final ThreadPoolExecutor[] stripes;
+    private final Timer latencyTimer;
+
+    public UpdateDispatcher(
+            MeterRegistry meterRegistry,
+            @Value("${telebot.updates.stripes:8}") int stripeCount,
+            @Value("${telebot.updates.queue-capacity:100}") int queueCapacity
+    ) {
+        this.stripes = new ThreadPoolExecutor[Math.max(1, stripeCount)];
+        for (int i = 0; i < stripes.length; i++) {
+            String threadName = "update-handler-" + (i + 1);
+            stripes[i] = new ThreadPoolExecutor(
+                    1, 1, 0L, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(Math.max(1, queueCapacity)),
+                    runnable -> {
+                        Thread thread = new Thread(runnable, threadName);
+                        thread.setDaemon(true);
+                        return thread;
+                    },
+                    UpdateDispatcher::waitForCapacity
+            );
+        }
+
+        Gauge.builder("telebot.updates.queue.depth", this, UpdateDispatcher::getQueueDepth)
+                .description("Incoming updates waiting to be handled")
+                .register(meterRegistry);
+        this.latencyTimer = Timer.builder("telebot.updates.latency")
+                .description("Time from receiving an update until it was handled")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Schedules handling of a user's update after all of the user's previously received updates.
+     *
+     * @param userId  the id of the user who sent the update
+     * @param handler the handling of the update
+     */
+    public void dispatch(Long userId, Runnable handler) {
+        long receivedAt = System.nanoTime();
+        stripes[Math.floorMod(Long.hashCode(userId), stripes.length)].execute(() -> {
+            try {
+                handler.run();
+            } catch (RuntimeException e) {
+                log.warn("Failed to handle update of id " + userId + ". " + e.getMessage());
+            } finally {
+                latencyTimer.record(System.nanoTime() - receivedAt, TimeUnit.NANOSECONDS);
+            }
+        });
+    }
+
+    /**
+     * Counts updates waiting in all stripes.
+     *
+     * @return the number of queued updates
+     */
+    public int getQueueDepth() {
+        return Arrays.stream(stripes).mapToInt(stripe -> stripe.getQueue().size()).sum();
+    }
+
+    /**
+     * Waits until a full stripe has room for the update.
+     */
+    private static void waitForCapacity(Runnable update, ThreadPoolExecutor stripe) {
+        if (stripe.isShutdown()) {
+            throw new RejectedExecutionException("Update dispatcher is shut down");
+        }
+        try {
+            stripe.getQueue().put(update);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RejectedExecutionException("Interrupted while waiting for a free slot", e);
+        }
+    }
+
+    @PreDestroy
+    private void shutdown() {
+        Arrays.stream(stripes).forEach(ThreadPoolExecutor::shutdownNow);
+    }
+
+}
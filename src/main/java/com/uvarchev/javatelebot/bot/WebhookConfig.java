@@ -0,0 +1,31 @@
+package com.uvarchev.javatelebot.bot;
+
+import lombok.Data;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@Data
+public class WebhookConfig {
+    public static final String MODE_POLLING = "polling";
+    public static final String MODE_WEBHOOK = "webhook";
+
+    @Value("${telebot.mode:" + MODE_POLLING + "}")
+    private String mode;
+
+    @Value("${telebot.webhook.url:}")
+    private String url;
+
+    @Value("${telebot.webhook.path:/telegram/webhook}")
+    private String path;
+
+    @Value("${telebot.webhook.secret-token:}")
+    private String secretToken;
+
+    @Value("${telebot.webhook.max-connections:16}")
+    private int maxConnections;
+
+    public boolean isWebhookMode() {
+        return MODE_WEBHOOK.equalsIgnoreCase(mode);
+    }
+}
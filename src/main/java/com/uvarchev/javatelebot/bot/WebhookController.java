@@ -0,0 +1,75 @@
+package com.uvarchev.javatelebot.bot;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RestController;
+import org.telegram.telegrambots.meta.api.objects.Update;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+/**
+ * Receives updates pushed by Telegram when the bot runs in webhook mode.
+ * Only requests carrying the configured secret token are accepted.
+ * Requests are served by the web server's bounded thread pool, and Telegram is asked to keep
+ * no more concurrent connections than that pool can serve.
+ */
+@Slf4j
+@RestController
+@ConditionalOnProperty(name = "telebot.mode", havingValue = WebhookConfig.MODE_WEBHOOK)
+public class WebhookController {
+
+    public static final String SECRET_TOKEN_HEADER = "X-Telegram-Bot-Api-Secret-Token";
+
+    @Autowired
+    private Telebot telebot;
+    @Autowired
+    private WebhookConfig config;
+
+    /**
+     * Accepts an update from Telegram and hands it over to the bot.
+     * The update is handled asynchronously, so the response is returned as soon as it is queued.
+     *
+     * @param secretToken the secret token sent by Telegram with every update
+     * @param update      the update object from Telegram
+     * @return 200 if the update was accepted, 401 if the secret token doesn't match
+     */
+    @PostMapping("${telebot.webhook.path:/telegram/webhook}")
+    public ResponseEntity<Void> receiveUpdate(
+            @RequestHeader(value = SECRET_TOKEN_HEADER, required = false) String secretToken,
+            @RequestBody Update update
+    ) {
+        // Reject requests that were not sent by Telegram
+        if (!isValidSecretToken(secretToken)) {
+            log.warn("Webhook request with an invalid secret token rejected");
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+
+        // Queue the update, waits if the user's handler is saturated
+        telebot.onUpdateReceived(update);
+        return ResponseEntity.ok().build();
+    }
+
+    /**
+     * Compares the received secret token with the configured one in constant time.
+     *
+     * @param secretToken the received secret token, may be null
+     * @return true if the tokens match
+     */
+    private boolean isValidSecretToken(String secretToken) {
+        if (secretToken == null || config.getSecretToken().isEmpty()) {
+            return false;
+        }
+        return MessageDigest.isEqual(
+                secretToken.getBytes(StandardCharsets.UTF_8),
+                config.getSecretToken().getBytes(StandardCharsets.UTF_8)
+        );
+    }
+
+}
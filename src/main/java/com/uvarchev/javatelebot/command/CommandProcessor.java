@@ -1,50 +1,70 @@
 package com.uvarchev.javatelebot.command;
 
+import com.uvarchev.javatelebot.dto.CommandRequest;
 import com.uvarchev.javatelebot.dto.Reply;
 import com.uvarchev.javatelebot.service.CommandService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 import org.telegram.telegrambots.meta.api.objects.Update;
 
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Function;
+
 @Component
 public class CommandProcessor {
 
+    // Creates the command for each keyword, keywords are matched case-insensitively
+    private static final Map<String, Function<CommandRequest, Command>> COMMANDS = createCommandTable();
+
     @Autowired
     private CommandService commandService;
 
-    private Long userId;
-    private String msgText;
-    private String userName;
-
     /**
      * Processes an update from Telegram and returns a reply object.
+     * Updates of different users may be processed concurrently, so no state is kept between calls.
      *
      * @param update The update object from Telegram.
      * @return Reply object with address, reply reference and reply text
      */
     public Reply processUpdate(Update update) {
-        userId = update.getMessage().getFrom().getId();
-        msgText = update.getMessage().getText();
-        userName = update.getMessage().getChat().getFirstName();
+        CommandRequest request = parseUpdate(update);
 
         return new Reply(
-                userId,
+                request.getUserId(),
+                request.getMsgId(),
+                generateReply(request)
+        );
+    }
+
+    /**
+     * Extracts the request context from an update.
+     *
+     * @param update The update object from Telegram.
+     * @return an immutable request context
+     */
+    private CommandRequest parseUpdate(Update update) {
+        String msgText = update.getMessage().getText();
+
+        return new CommandRequest(
+                update.getMessage().getFrom().getId(),
                 update.getMessage().getMessageId(),
-                generateReply(msgText)
+                msgText,
+                update.getMessage().getChat().getFirstName(),
+                extractKeyword(msgText)
         );
     }
 
     /**
      * Generates a reply text based on the command extracted from the user's message text.
      *
-     * @param msgText The text string sent by the user.
+     * @param request The context of the user's request.
      * @return The reply text to be sent to the user.
      */
-    private String generateReply(String msgText) {
-        // Extract command
-        Command command = createCommand(
-                msgText.toUpperCase().split("\\s+")[0]
-        );
+    private String generateReply(CommandRequest request) {
+        // Select command
+        Command command = createCommand(request);
 
         // Reply
         return command.execute(commandService);
@@ -54,19 +74,53 @@ public class CommandProcessor {
      * Selects required command based on the first word of the users input.
      * If the required pattern doesn't match, an UNRECOGNIZED command will be selected.
      *
-     * @param firstWord The first complete word from the user's input
+     * @param request The context of the user's request.
      * @return Commands implementation, selected based on the user's input
      */
-    private Command createCommand(String firstWord) {
-        return switch (firstWord) {
-            case "/START" -> new StartCommand(userName, userId);
-            case "/STOP" -> new StopCommand(userName, userId);
-            case "/SUBSCRIBE" -> new SubscribeCommand(msgText, userName, userId);
-            case "/UNSUBSCRIBE" -> new UnsubscribeCommand(msgText, userName, userId);
-            case "/SUBSCRIPTIONS" -> new SubscriptionsCommand(userName, userId);
-            case "/STATISTICS" -> new StatisticsCommand(userName, userId);
-            default -> new UnrecognisedCommand(userName, userId);
-        };
+    private Command createCommand(CommandRequest request) {
+        return COMMANDS
+                .getOrDefault(request.getKeyword(), CommandProcessor::createUnrecognisedCommand)
+                .apply(request);
+    }
+
+    /**
+     * Extracts the first word of a message without using regular expressions.
+     *
+     * @param msgText The text string sent by the user.
+     * @return the first word, or an empty string if the message is blank
+     */
+    private static String extractKeyword(String msgText) {
+        int start = 0;
+        while (start < msgText.length() && Character.isWhitespace(msgText.charAt(start))) {
+            start++;
+        }
+        int end = start;
+        while (end < msgText.length() && !Character.isWhitespace(msgText.charAt(end))) {
+            end++;
+        }
+        return msgText.substring(start, end);
+    }
+
+    /**
+     * Builds the lookup table of commands by their keywords.
+     *
+     * @return an immutable case-insensitive map of keywords and command factories
+     */
+    private static Map<String, Function<CommandRequest, Command>> createCommandTable() {
+        Map<String, Function<CommandRequest, Command>> commands = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        commands.put("/START", request -> new StartCommand(request.getUserName(), request.getUserId()));
+        commands.put("/STOP", request -> new StopCommand(request.getUserName(), request.getUserId()));
+        commands.put("/SUBSCRIBE", request ->
+                new SubscribeCommand(request.getMsgText(), request.getUserName(), request.getUserId()));
+        commands.put("/UNSUBSCRIBE", request ->
+                new UnsubscribeCommand(request.getMsgText(), request.getUserName(), request.getUserId()));
+        commands.put("/SUBSCRIPTIONS", request -> new SubscriptionsCommand(request.getUserName(), request.getUserId()));
+        commands.put("/STATISTICS", request -> new StatisticsCommand(request.getUserName(), request.getUserId()));
+        return Collections.unmodifiableMap(commands);
+    }
+
+    private static Command createUnrecognisedCommand(CommandRequest request) {
+        return new UnrecognisedCommand(request.getUserName(), request.getUserId());
     }
 
 }
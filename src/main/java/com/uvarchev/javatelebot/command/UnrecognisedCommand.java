@@ -9,8 +9,8 @@ import lombok.Getter;
 @Getter
 public class UnrecognisedCommand implements Command {
 
-    private String userName;
-    private Long userId;
+    private final String userName;
+    private final Long userId;
 
     @Override
     public CommandType getType() {
@@ -9,9 +9,9 @@ import lombok.Getter;
 @Getter
 public class UnsubscribeCommand implements Command {
 
-    private String msgText;
-    private String userName;
-    private Long userId;
+    private final String msgText;
+    private final String userName;
+    private final Long userId;
 
     @Override
     public CommandType getType() {
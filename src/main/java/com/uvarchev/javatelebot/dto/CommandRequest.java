@@ -0,0 +1,18 @@
+package com.uvarchev.javatelebot.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * An immutable context of a single incoming command, parsed from a Telegram update.
+ * It is safe to share between threads.
+ */
+@Getter
+@AllArgsConstructor
+public final class CommandRequest {
+    private final Long userId;
+    private final Integer msgId;
+    private final String msgText;
+    private final String userName;
+    private final String keyword; // first word of the message, e.g. "/subscribe"
+}
@@ -0,0 +1,14 @@
+package com.uvarchev.javatelebot.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * The outcome of sending a single reply via Telegram.
+ */
+@Getter
+@AllArgsConstructor
+public class DeliveryResult {
+    private final Reply reply;
+    private final boolean delivered;
+}
@@ -0,0 +1,47 @@
+package com.uvarchev.javatelebot.dto;
+
+import lombok.Getter;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Thread-safe accumulator of the outcome of one dispatching session.
+ */
+@Getter
+public class DispatchResult {
+
+    // Keep track of failed attempt addresses
+    private final Set<Long> failedAttempts = ConcurrentHashMap.newKeySet();
+
+    // Keep track of how many articles did each user receive during one session
+    private final Map<Long, Long> articlesReceivedCount = new ConcurrentHashMap<>();
+
+    // Save successfully sent subscription ids
+    private final Set<Long> receivedSubscriptionIds = ConcurrentHashMap.newKeySet();
+
+    // Save ids of delivered outbox messages
+    private final Set<Long> deliveredOutboxIds = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Registers a successfully delivered reply.
+     *
+     * @param reply the reply that was delivered
+     */
+    public void registerDelivered(Reply reply) {
+        articlesReceivedCount.merge(reply.getUserId(), (long) reply.getArticleCount(), Long::sum);
+        receivedSubscriptionIds.addAll(reply.getSubscriptionIds());
+        deliveredOutboxIds.addAll(reply.getOutboxIds());
+    }
+
+    /**
+     * Registers a recipient that failed to receive a reply.
+     *
+     * @param userId the user id of the recipient
+     */
+    public void registerFailed(Long userId) {
+        failedAttempts.add(userId);
+    }
+
+}
@@ -0,0 +1,41 @@
+package com.uvarchev.javatelebot.dto;
+
+import com.uvarchev.javatelebot.enums.NewsProvider;
+import lombok.Getter;
+
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Accumulator of the outcome of distributing news during one run.
+ */
+@Getter
+public class DistributionResult {
+
+    // Count messages enqueued during the run
+    private int enqueuedCount;
+
+    // Keep track of the latest publish time fetched from each provider
+    private final Map<NewsProvider, Instant> latestPublishedAt = new EnumMap<>(NewsProvider.class);
+
+    /**
+     * Registers messages enqueued for a committed block of articles.
+     *
+     * @param blockCount the number of messages enqueued for the block
+     */
+    public void registerEnqueued(int blockCount) {
+        enqueuedCount += blockCount;
+    }
+
+    /**
+     * Registers an article fetched from a provider.
+     *
+     * @param provider    the provider of the article
+     * @param publishedAt the publish time reported by the provider
+     */
+    public void registerFetched(NewsProvider provider, Instant publishedAt) {
+        latestPublishedAt.merge(provider, publishedAt, (first, second) -> first.isAfter(second) ? first : second);
+    }
+
+}
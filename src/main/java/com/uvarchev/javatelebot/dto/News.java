@@ -5,10 +5,21 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+
 @Setter
 @Getter
 @NoArgsConstructor
 public class News {
+    // Renders the publish time the way the news API sends it, e.g. 2024-06-04T16:20:23Z
+    private static final DateTimeFormatter PUBLISHED_AT_FORMATTER =
+            DateTimeFormatter.ISO_OFFSET_DATE_TIME.withZone(ZoneOffset.UTC);
+
+    @SerializedName("id")
+    private long id;
+
     @SerializedName("title")
     private String title;
 
@@ -22,7 +33,7 @@ public class News {
     private String summary;
 
     @SerializedName("published_at")
-    private String publishedAt;
+    private Instant publishedAt;
 
     @SerializedName("news_site")
     private String provider;
@@ -32,6 +43,6 @@ public class News {
         return title + "\n\n" +
                 summary + "\n\n" +
                 "https://t.me/iv?url=" + url + "&rhash=133d3fc26c9f3f" + "\n" + // instant view url
-                "Published: " + publishedAt;
+                "Published: " + (publishedAt == null ? null : PUBLISHED_AT_FORMATTER.format(publishedAt));
     }
 }
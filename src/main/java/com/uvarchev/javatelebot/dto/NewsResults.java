@@ -5,12 +5,18 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 
-import java.util.Stack;
+import java.util.List;
 
 @Setter
 @Getter
 @NoArgsConstructor
 public class NewsResults {
+    @SerializedName("count")
+    private int count; // total number of articles matching the request
+
+    @SerializedName("next")
+    private String next; // url of the next page, or null on the last page
+
     @SerializedName("results")
-    private Stack<News> results;
+    private List<News> results;
 }
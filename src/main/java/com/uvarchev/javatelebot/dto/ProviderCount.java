@@ -0,0 +1,15 @@
+package com.uvarchev.javatelebot.dto;
+
+import com.uvarchev.javatelebot.enums.NewsProvider;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * The number of active subscriptions of a news provider.
+ */
+@Getter
+@AllArgsConstructor
+public class ProviderCount {
+    private final NewsProvider provider;
+    private final long count;
+}
@@ -0,0 +1,18 @@
+package com.uvarchev.javatelebot.dto;
+
+import com.uvarchev.javatelebot.enums.NewsProvider;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.ZonedDateTime;
+
+/**
+ * The high-water mark of a news provider: the oldest last read time among its active subscriptions.
+ * Articles published after it are fetched from the provider.
+ */
+@Getter
+@AllArgsConstructor
+public class ProviderCursor {
+    private final NewsProvider provider;
+    private final ZonedDateTime oldestRead;
+}
@@ -0,0 +1,18 @@
+package com.uvarchev.javatelebot.dto;
+
+import com.uvarchev.javatelebot.enums.NewsProvider;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The news providers requested in the arguments of a command.
+ */
+@Getter
+@AllArgsConstructor
+public class ProviderSelection {
+    private final Set<NewsProvider> providers; // in the order they were requested
+    private final Map<String, NewsProvider> unrecognisedOptions; // each unrecognised option and its nearest match, or null
+}
@@ -2,12 +2,16 @@ package com.uvarchev.javatelebot.dto;
 
 import lombok.Getter;
 
+import java.util.List;
+
 @Getter
 public class Reply {
     private final Long userId;
     private int msgId;
     private final String messageBody;
-    private Long subscriptionId;
+    private List<Long> subscriptionIds = List.of(); // subscriptions whose articles the message carries
+    private int articleCount; // number of articles the message carries
+    private List<Long> outboxIds = List.of(); // outbox messages the reply was composed of
 
     public Reply(Long userId, int msgId, String messageBody) {
         this.userId = userId;
@@ -18,7 +22,26 @@ public class Reply {
     public Reply(Long userId, String messageBody, Long subscriptionId) {
         this.userId = userId;
         this.messageBody = messageBody;
-        this.subscriptionId = subscriptionId;
+        this.subscriptionIds = List.of(subscriptionId);
+        this.articleCount = 1;
+    }
+
+    public Reply(Long userId, String messageBody, List<Long> subscriptionIds, int articleCount) {
+        this(userId, messageBody, subscriptionIds, articleCount, List.of());
+    }
+
+    public Reply(
+            Long userId,
+            String messageBody,
+            List<Long> subscriptionIds,
+            int articleCount,
+            List<Long> outboxIds
+    ) {
+        this.userId = userId;
+        this.messageBody = messageBody;
+        this.subscriptionIds = List.copyOf(subscriptionIds);
+        this.articleCount = articleCount;
+        this.outboxIds = List.copyOf(outboxIds);
     }
 
     public Reply(Long userId, String messageBody) {
@@ -0,0 +1,17 @@
+package com.uvarchev.javatelebot.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.ZonedDateTime;
+
+/**
+ * The earliest cursor target among the undelivered outbox messages of a subscription.
+ * The subscription's cursor must not advance to it or beyond, until the message is delivered.
+ */
+@Getter
+@AllArgsConstructor
+public class SubscriptionCursor {
+    private final Long subscriptionId;
+    private final ZonedDateTime earliestPending;
+}
@@ -0,0 +1,29 @@
+package com.uvarchev.javatelebot.dto;
+
+import com.uvarchev.javatelebot.enums.NewsProvider;
+import lombok.Getter;
+
+import java.time.ZonedDateTime;
+
+/**
+ * A flat read-only view of an active subscription, carrying only what news distribution needs.
+ */
+@Getter
+public class SubscriptionRow {
+    private final Long subscriptionId;
+    private final Long telegramId;
+    private final NewsProvider provider;
+    private final long lastReadMillis; // last read time in epoch milliseconds
+
+    public SubscriptionRow(
+            Long subscriptionId,
+            Long telegramId,
+            NewsProvider provider,
+            ZonedDateTime lastReadId
+    ) {
+        this.subscriptionId = subscriptionId;
+        this.telegramId = telegramId;
+        this.provider = provider;
+        this.lastReadMillis = lastReadId.toInstant().toEpochMilli();
+    }
+}
@@ -0,0 +1,36 @@
+package com.uvarchev.javatelebot.dto;
+
+import com.uvarchev.javatelebot.entity.User;
+import com.uvarchev.javatelebot.enums.UserRole;
+import lombok.Getter;
+
+/**
+ * An immutable snapshot of a user's role and active subscriptions, used to serve commands
+ * that don't change the user.
+ */
+@Getter
+public final class UserProfile {
+    // Profile of a user who is not registered
+    public static final UserProfile UNREGISTERED = new UserProfile(UserRole.UNAUTHORISED, 0);
+
+    private final UserRole userRole;
+    private final int activeProviderMask; // see NewsProvider.getMask()
+
+    public UserProfile(UserRole userRole, Integer activeProviderMask) {
+        this.userRole = userRole;
+        this.activeProviderMask = activeProviderMask;
+    }
+
+    /**
+     * Creates a snapshot of the user's current state.
+     *
+     * @param user the user, or null if the user doesn't exist
+     * @return the profile of the user
+     */
+    public static UserProfile of(User user) {
+        if (user == null) {
+            return UNREGISTERED;
+        }
+        return new UserProfile(user.getUserRole(), user.getActiveProviderMask());
+    }
+}
@@ -0,0 +1,24 @@
+package com.uvarchev.javatelebot.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Entity
+@Table(name = "outbox_bodies")
+@Getter
+@Setter
+@NoArgsConstructor
+public class OutboxBody {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "body", columnDefinition = "TEXT", nullable = false)
+    private String body; // rendered article, shared by all its outbox messages
+
+    public OutboxBody(String body) {
+        this.body = body;
+    }
+}
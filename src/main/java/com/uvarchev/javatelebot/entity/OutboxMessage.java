@@ -0,0 +1,57 @@
+package com.uvarchev.javatelebot.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.ZonedDateTime;
+
+@Entity
+@Table(
+        name = "outbox_messages",
+        indexes = {
+                @Index(name = "idx_outbox_pending", columnList = "is_delivered, is_dropped, telegram_id, id"),
+                @Index(name = "idx_outbox_body", columnList = "body_id")
+        }
+)
+@Getter
+@Setter
+@NoArgsConstructor
+public class OutboxMessage {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "telegram_id", nullable = false)
+    private Long telegramId; // recipient
+
+    @Column(name = "subscription_id", nullable = false)
+    private Long subscriptionId; // subscription the article was distributed for
+
+    @Column(name = "body_id", nullable = false)
+    private Long bodyId; // rendered article, see OutboxBody
+
+    @Column(name = "cursor_target", nullable = false)
+    private ZonedDateTime cursorTarget; // first known publish time of the article, the subscription's cursor advances to it once delivered
+
+    @Column(name = "is_delivered", columnDefinition = "TINYINT(1)", nullable = false)
+    private boolean isDelivered;
+
+    @Column(name = "is_dropped", columnDefinition = "TINYINT(1)", nullable = false)
+    private boolean isDropped; // not sent to a failed recipient, holds back the subscription's cursor until the run ends
+
+    public OutboxMessage(
+            Long telegramId,
+            Long subscriptionId,
+            Long bodyId,
+            ZonedDateTime cursorTarget
+    ) {
+        this.telegramId = telegramId;
+        this.subscriptionId = subscriptionId;
+        this.bodyId = bodyId;
+        this.cursorTarget = cursorTarget;
+        this.isDelivered = false;
+        this.isDropped = false;
+    }
+}
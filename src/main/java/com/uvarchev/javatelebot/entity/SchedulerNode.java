@@ -0,0 +1,27 @@
+package com.uvarchev.javatelebot.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.ZonedDateTime;
+
+@Entity
+@Table(name = "scheduler_nodes")
+@Getter
+@Setter
+@NoArgsConstructor
+public class SchedulerNode {
+    @Id
+    @Column(name = "node_id")
+    private String nodeId;
+
+    @Column(name = "expires_at", nullable = false)
+    private ZonedDateTime expiresAt; // the node is considered dead after this time
+
+    public SchedulerNode(String nodeId, ZonedDateTime expiresAt) {
+        this.nodeId = nodeId;
+        this.expiresAt = expiresAt;
+    }
+}
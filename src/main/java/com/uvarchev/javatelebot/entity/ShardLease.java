@@ -0,0 +1,29 @@
+package com.uvarchev.javatelebot.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.ZonedDateTime;
+
+@Entity
+@Table(name = "shard_leases")
+@Getter
+@Setter
+@NoArgsConstructor
+public class ShardLease {
+    @Id
+    @Column(name = "shard_id")
+    private Integer shardId;
+
+    @Column(name = "owner_id")
+    private String ownerId; // node currently holding the shard, null if released
+
+    @Column(name = "expires_at")
+    private ZonedDateTime expiresAt; // the shard can be taken over after this time
+
+    public ShardLease(Integer shardId) {
+        this.shardId = shardId;
+    }
+}
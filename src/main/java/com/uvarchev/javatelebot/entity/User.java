@@ -1,5 +1,6 @@
 package com.uvarchev.javatelebot.entity;
 
+import com.uvarchev.javatelebot.enums.NewsProvider;
 import com.uvarchev.javatelebot.enums.UserRole;
 import jakarta.persistence.*;
 import lombok.Getter;
@@ -9,7 +10,6 @@ import lombok.Setter;
 import java.util.HashSet;
 import java.util.Objects;
 import java.util.Set;
-import java.util.stream.Collectors;
 
 @Entity
 @Table(name = "users")
@@ -38,6 +38,9 @@ public class User {
     @Column(name = "articles_received")
     private long articlesReceived;
 
+    @Column(name = "active_providers")
+    private Integer activeProviderMask = 0; // providers of active subscriptions, null for not yet migrated users
+
     public User(Long telegramId) {
         this.telegramId = telegramId;
         this.userRole = UserRole.USER;
@@ -50,46 +53,83 @@ public class User {
      */
     public void addSubscription(Subscription subscription) {
         subscriptions.add(subscription);
+        if (subscription.isActive()) {
+            activeProviderMask = getActiveProviderMask() | subscription.getProvider().getMask();
+        }
+    }
+
+    /**
+     * Activates or deactivates one of the user's subscriptions, keeping the bitmask of active providers in sync.
+     *
+     * @param subscription The subscription object from the subscription list.
+     * @param active       The new active status of the subscription.
+     */
+    public void setSubscriptionActive(Subscription subscription, boolean active) {
+        subscription.setActive(active);
+        int providerMask = subscription.getProvider().getMask();
+        activeProviderMask = active
+                ? getActiveProviderMask() | providerMask
+                : getActiveProviderMask() & ~providerMask;
+    }
+
+    /**
+     * Returns the subscription to the given provider from the subscription list, or null if none is found.
+     *
+     * @param provider The news provider of the subscription.
+     * @return The subscription object from the list, or null if not found.
+     */
+    public Subscription getSubscription(NewsProvider provider) {
+        for (Subscription subscription : getSubscriptions()) {
+            if (subscription.getProvider() == provider) {
+                return subscription;
+            }
+        }
+        return null;
     }
 
     /**
-     * Returns the first subscription object from the subscription list that has the same
-     * userId and provider as the given subscription object, or null if none is found.
+     * Returns the active subscription to the given provider from the subscription list, or null if none is found.
+     * The subscription list is not loaded if the user is not subscribed to the provider.
      *
-     * @param subscription The subscription object to be compared with the subscriptions list.
-     * @return The equal subscription object from the list, or null if not found.
+     * @param provider The news provider of the subscription.
+     * @return The active subscription object from the list, or null if not found.
      */
-    public Subscription getEqualSubscription(Subscription subscription) {
-        return getSubscriptions().stream()
-                .filter(s -> s.equals(subscription))
-                .findFirst()
-                .orElse(null);
+    public Subscription getActiveSubscription(NewsProvider provider) {
+        if (!hasActiveSubscription(provider)) {
+            return null;
+        }
+        Subscription subscription = getSubscription(provider);
+        return subscription != null && subscription.isActive() ? subscription : null;
     }
 
     /**
-     * Returns the first subscription object from the subscription list that has the same
-     * userId and provider as the given subscription object and is active, or null if none is found.
+     * Checks if the user is actively subscribed to the given provider.
      *
-     * @param subscription The subscription object to be compared with the subscriptions list.
-     * @return The equal active subscription object from the list, or null if not found.
+     * @param provider The news provider to check.
+     * @return true if the user has an active subscription to the provider.
      */
-    public Subscription getEqualActiveSubscription(Subscription subscription) {
-        return getSubscriptions().stream()
-                .filter(s -> s.equals(subscription))
-                .filter(Subscription::isActive)
-                .findFirst()
-                .orElse(null);
+    public boolean hasActiveSubscription(NewsProvider provider) {
+        return (getActiveProviderMask() & provider.getMask()) != 0;
     }
 
     /**
-     * Returns a set of all active subscriptions from the subscription list.
+     * Returns a bitmask of the providers of all active subscriptions.
+     * Users stored before the bitmask was introduced get it computed from their subscriptions,
+     * it is saved along with the next change of the user.
      *
-     * @return The set of active subscriptions.
+     * @return the bitmask of active providers, see {@link NewsProvider#getMask()}
      */
-    public Set<Subscription> getAllActiveSubscriptions() {
-        return getSubscriptions().stream()
-                .filter(Subscription::isActive)
-                .collect(Collectors.toSet());
+    public int getActiveProviderMask() {
+        if (activeProviderMask == null) {
+            int mask = 0;
+            for (Subscription subscription : getSubscriptions()) {
+                if (subscription.isActive()) {
+                    mask |= subscription.getProvider().getMask();
+                }
+            }
+            activeProviderMask = mask;
+        }
+        return activeProviderMask;
     }
 
     /**
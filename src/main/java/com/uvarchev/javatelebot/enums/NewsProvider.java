@@ -1,21 +1,55 @@
 package com.uvarchev.javatelebot.enums;
 
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
 public enum NewsProvider {
-    ARSTECHNICA("Arstechnica"),
-    EUROPEAN_SPACEFLIGHT("European Spaceflight"),
+    ARSTECHNICA("Arstechnica", "ARS"),
+    EUROPEAN_SPACEFLIGHT("European Spaceflight", "ESF"),
     NASA("NASA"),
-    NASASPACEFLIGHT("NASASpaceflight"),
+    NASASPACEFLIGHT("NASASpaceflight", "NSF"),
     SPACENEWS("SpaceNews"),
-    SPACEPOLICYONLINE("SpacePolicyOnline.com"),
-    SPACE_SCOUT("Space Scout");
+    SPACEPOLICYONLINE("SpacePolicyOnline.com", "SPO"),
+    SPACE_SCOUT("Space Scout", "SCOUT");
+
+    private static final Map<String, NewsProvider> BY_API_NAME = Arrays.stream(values())
+            .collect(Collectors.toMap(NewsProvider::getApiName, Function.identity()));
 
     private final String apiName;
+    private final List<String> aliases; // short names accepted in command arguments
 
-    NewsProvider(String apiName) {
+    NewsProvider(String apiName, String... aliases) {
         this.apiName = apiName;
+        this.aliases = List.of(aliases);
     }
 
     public String getApiName() {
         return apiName;
     }
+
+    public List<String> getAliases() {
+        return aliases;
+    }
+
+    /**
+     * Returns the bit representing this provider in a bitmask of providers.
+     *
+     * @return a single-bit mask based on the provider's ordinal
+     */
+    public int getMask() {
+        return 1 << ordinal();
+    }
+
+    /**
+     * Returns the news provider with the given Spaceflight News API name.
+     *
+     * @param apiName the name of the news site as used by the API
+     * @return the matching news provider, or null if none is found
+     */
+    public static NewsProvider fromApiName(String apiName) {
+        return BY_API_NAME.get(apiName);
+    }
 }
@@ -1,50 +1,132 @@
 package com.uvarchev.javatelebot.network;
 
-import com.uvarchev.javatelebot.dto.News;
+import com.google.gson.GsonBuilder;
 import com.uvarchev.javatelebot.dto.NewsResults;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import okhttp3.Cache;
+import okhttp3.CacheControl;
+import okhttp3.ConnectionPool;
+import okhttp3.OkHttpClient;
+import org.springframework.stereotype.Component;
 import retrofit2.Call;
 import retrofit2.Response;
 import retrofit2.Retrofit;
 import retrofit2.converter.gson.GsonConverterFactory;
 
+import java.io.File;
 import java.io.IOException;
-import java.util.Stack;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * A client of the Spaceflight News API shared by all scheduler runs.
+ * Connections are pooled and kept alive between runs, responses are gzip-compressed
+ * and kept in a disk cache, so that an unchanged page is revalidated with a 304 response
+ * instead of being downloaded again.
+ */
+@Slf4j
+@Component
 public class ApiClient {
 
-    private final String newsProviders;
-    private final String oldestRead;
+    // Oldest articles first
+    private static final String CHRONOLOGICAL_ORDER = "published_at";
 
-    public ApiClient(String newsProviders, String oldestRead) {
-        this.newsProviders = newsProviders;
-        this.oldestRead = oldestRead;
-    }
+    // Always revalidate cached pages, so that new articles are never missed
+    private static final CacheControl REVALIDATE = new CacheControl.Builder()
+            .maxAge(0, TimeUnit.SECONDS)
+            .build();
+
+    private final OkHttpClient httpClient;
+    private final SpaceNewsService service;
+
+    public ApiClient(NewsApiConfig config) {
+        // OkHttp requests gzip-compressed responses and decompresses them transparently
+        this.httpClient = new OkHttpClient.Builder()
+                .connectionPool(new ConnectionPool(
+                        config.getMaxIdleConnections(),
+                        config.getKeepAliveMinutes(),
+                        TimeUnit.MINUTES
+                ))
+                .connectTimeout(config.getConnectTimeoutSeconds(), TimeUnit.SECONDS)
+                .readTimeout(config.getReadTimeoutSeconds(), TimeUnit.SECONDS)
+                .cache(new Cache(new File(config.getCacheDir()), config.getCacheSizeMb() * 1024 * 1024))
+                .addInterceptor(chain -> chain.proceed(
+                        chain.request().newBuilder()
+                                .cacheControl(REVALIDATE)
+                                .build()
+                ))
+                .build();
 
-    public Stack<News> getNews() {
-        // Spaceflight News API
-        String baseUrl = "https://api.spaceflightnewsapi.net";
         Retrofit retrofit = new Retrofit.Builder()
-                .baseUrl(baseUrl)
-                .addConverterFactory(GsonConverterFactory.create())
+                .baseUrl(config.getBaseUrl())
+                .client(httpClient)
+                .addConverterFactory(GsonConverterFactory.create(
+                        // Parse timestamps once on deserialization
+                        new GsonBuilder()
+                                .registerTypeAdapter(Instant.class, new InstantTypeAdapter())
+                                .create()
+                ))
                 .build();
 
-        SpaceNewsService service = retrofit.create(SpaceNewsService.class);
-        Call<NewsResults> newsCall = service.getNews(
-                50,
-                newsProviders,
-                oldestRead
-        );
+        this.service = retrofit.create(SpaceNewsService.class);
+    }
+
+    /**
+     * Requests the first page of articles of a news site published after the given time,
+     * in chronological order.
+     *
+     * @param newsSite      the API name of the news site
+     * @param publishedAtGt the time after which articles were published
+     * @param limit         the maximum number of articles per page
+     * @return the first page of articles
+     */
+    public NewsResults getFirstPage(String newsSite, String publishedAtGt, int limit) {
+        return execute(service.getNews(limit, newsSite, publishedAtGt, CHRONOLOGICAL_ORDER));
+    }
+
+    /**
+     * Requests the page of articles the previous page links to.
+     *
+     * @param nextPageUrl the url of the next page
+     * @return the requested page of articles
+     */
+    public NewsResults getNextPage(String nextPageUrl) {
+        return execute(service.getNextPage(nextPageUrl));
+    }
 
+    /**
+     * Executes a request and returns its body.
+     *
+     * @param newsCall the request to be executed
+     * @return the response body
+     * @throws IllegalStateException if the API responded with an error
+     * @throws UncheckedIOException  if the request failed
+     */
+    private NewsResults execute(Call<NewsResults> newsCall) {
         try {
             Response<NewsResults> newsResponse = newsCall.execute();
-            if (newsResponse.body() != null) {
-                return newsResponse.body().getResults();
-            } else {
-                return null;
+            if (!newsResponse.isSuccessful() || newsResponse.body() == null) {
+                throw new IllegalStateException(
+                        "Spaceflight News API responded with " + newsResponse.code()
+                );
             }
+            return newsResponse.body();
         } catch (IOException e) {
-            throw new RuntimeException(e);
+            throw new UncheckedIOException(e);
         }
+    }
 
+    @PreDestroy
+    private void shutdown() {
+        httpClient.dispatcher().executorService().shutdown();
+        httpClient.connectionPool().evictAll();
+        try {
+            httpClient.cache().close();
+        } catch (IOException e) {
+            log.warn("Failed to close the HTTP cache. " + e.getMessage());
+        }
     }
+
 }
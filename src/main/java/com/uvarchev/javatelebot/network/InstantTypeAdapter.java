@@ -0,0 +1,36 @@
+package com.uvarchev.javatelebot.network;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * A Gson type adapter that converts ISO-8601 date-time strings with an offset
+ * (ex. 2011-12-03T10:15:30Z or 2011-12-03T10:15:30+01:00) to {@link Instant} and back.
+ */
+public class InstantTypeAdapter extends TypeAdapter<Instant> {
+
+    @Override
+    public void write(JsonWriter out, Instant value) throws IOException {
+        if (value == null) {
+            out.nullValue();
+        } else {
+            out.value(value.toString());
+        }
+    }
+
+    @Override
+    public Instant read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        return DateTimeFormatter.ISO_OFFSET_DATE_TIME.parse(in.nextString(), Instant::from);
+    }
+
+}
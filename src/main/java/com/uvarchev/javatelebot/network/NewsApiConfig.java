@@ -0,0 +1,30 @@
+package com.uvarchev.javatelebot.network;
+
+import lombok.Data;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@Data
+public class NewsApiConfig {
+    @Value("${telebot.news.base-url:https://api.spaceflightnewsapi.net}")
+    private String baseUrl;
+
+    @Value("${telebot.news.cache-dir:${java.io.tmpdir}/telebot-http-cache}")
+    private String cacheDir;
+
+    @Value("${telebot.news.cache-size-mb:20}")
+    private long cacheSizeMb;
+
+    @Value("${telebot.news.connect-timeout-seconds:10}")
+    private long connectTimeoutSeconds;
+
+    @Value("${telebot.news.read-timeout-seconds:30}")
+    private long readTimeoutSeconds;
+
+    @Value("${telebot.news.max-idle-connections:5}")
+    private int maxIdleConnections;
+
+    @Value("${telebot.news.keep-alive-minutes:5}")
+    private long keepAliveMinutes;
+}
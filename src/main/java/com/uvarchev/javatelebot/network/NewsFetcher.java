@@ -0,0 +1,174 @@
+package com.uvarchev.javatelebot.network;
+
+import com.uvarchev.javatelebot.dto.News;
+import com.uvarchev.javatelebot.dto.NewsResults;
+import com.uvarchev.javatelebot.dto.ProviderCursor;
+import com.uvarchev.javatelebot.enums.NewsProvider;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * A component that fetches news of several providers concurrently, each from its own cursor,
+ * and merges them into a single chronological stream.
+ */
+@Slf4j
+@Component
+public class NewsFetcher {
+
+    private static final DateTimeFormatter CURSOR_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ssX");
+
+    private final ApiClient client;
+    private final ExecutorService executor;
+    private final int pageSize;
+    private final int prefetchPages;
+
+    public NewsFetcher(
+            ApiClient client,
+            @Value("${telebot.news.page-size:100}") int pageSize,
+            @Value("${telebot.news.prefetch-pages:2}") int prefetchPages
+    ) {
+        this.client = client;
+        this.pageSize = pageSize;
+        this.prefetchPages = prefetchPages;
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "news-fetcher-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Fetches all articles of each provider published after its cursor, page by page.
+     * Providers are fetched concurrently, a provider that failed to respond is skipped.
+     * Only a bounded number of pages per provider is held in memory, the stream must be
+     * closed to stop downloading.
+     *
+     * @param cursors the cursors of the providers to fetch
+     * @return a lazy stream of articles of all providers in chronological order
+     * @throws RuntimeException while consuming the stream, if a provider failed after its first page
+     */
+    public Stream<News> fetchNews(List<ProviderCursor> cursors) {
+        // Start fetching all providers at once
+        List<NewsPageIterator> sources = cursors.stream()
+                .map(this::fetchProvider)
+                .toList();
+
+        // Merge the providers' articles as they arrive
+        return StreamSupport.stream(
+                Spliterators.spliteratorUnknownSize(mergeChronologically(sources), Spliterator.ORDERED),
+                false
+        ).onClose(() -> sources.forEach(NewsPageIterator::close));
+    }
+
+    /**
+     * Checks with a single-article request if a provider published anything after the given time.
+     *
+     * @param provider the news provider to check
+     * @param since    the time after which articles are looked for
+     * @return true if there are new articles, false otherwise
+     */
+    public boolean hasNewArticles(NewsProvider provider, ZonedDateTime since) {
+        NewsResults head = client.getFirstPage(provider.getApiName(), since.format(CURSOR_FORMAT), 1);
+        return head.getResults() != null && !head.getResults().isEmpty();
+    }
+
+    /**
+     * Starts fetching articles of a single provider published after its cursor.
+     *
+     * @param cursor the cursor of the provider
+     * @return an iterator over the provider's articles in chronological order
+     */
+    private NewsPageIterator fetchProvider(ProviderCursor cursor) {
+        String apiName = cursor.getProvider().getApiName();
+        String oldestRead = cursor.getOldestRead().format(CURSOR_FORMAT);
+
+        return new NewsPageIterator(
+                () -> fetchFirstPage(cursor, apiName, oldestRead),
+                client::getNextPage,
+                prefetchPages,
+                executor
+        );
+    }
+
+    /**
+     * Downloads the first page of a provider's articles.
+     * Nothing was distributed for the provider yet, so it can safely be skipped on failure.
+     *
+     * @param cursor     the cursor of the provider
+     * @param apiName    the API name of the provider
+     * @param oldestRead the formatted cursor time
+     * @return the first page, or null if the fetch failed
+     */
+    private NewsResults fetchFirstPage(ProviderCursor cursor, String apiName, String oldestRead) {
+        try {
+            return client.getFirstPage(apiName, oldestRead, pageSize);
+        } catch (RuntimeException e) {
+            log.warn("Failed to fetch news of " + cursor.getProvider() + ". " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Lazily merges chronologically ordered article iterators into a single chronological iterator.
+     *
+     * @param sources iterators of articles, each in chronological order
+     * @return a merged iterator of articles in chronological order
+     */
+    private Iterator<News> mergeChronologically(List<? extends Iterator<News>> sources) {
+        // Heap of source iterators ordered by their current article
+        record Head(News article, Iterator<News> rest) {
+        }
+        PriorityQueue<Head> heads = new PriorityQueue<>(
+                Comparator.comparing((Head head) -> head.article().getPublishedAt())
+        );
+
+        return new Iterator<>() {
+            private boolean initialised;
+
+            @Override
+            public boolean hasNext() {
+                // Wait for the first article of each source only once the stream is consumed
+                if (!initialised) {
+                    initialised = true;
+                    sources.stream()
+                            .filter(Iterator::hasNext)
+                            .forEach(iterator -> heads.offer(new Head(iterator.next(), iterator)));
+                }
+                return !heads.isEmpty();
+            }
+
+            @Override
+            public News next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+
+                // Take the earliest article and advance its source
+                Head head = heads.poll();
+                if (head.rest().hasNext()) {
+                    heads.offer(new Head(head.rest().next(), head.rest()));
+                }
+                return head.article();
+            }
+        };
+    }
+
+    @PreDestroy
+    private void shutdown() {
+        executor.shutdownNow();
+    }
+
+}
@@ -0,0 +1,138 @@
+package com.uvarchev.javatelebot.network;
+
+import com.uvarchev.javatelebot.dto.News;
+import com.uvarchev.javatelebot.dto.NewsResults;
+
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * An iterator over the articles of a paginated API response.
+ * Pages are downloaded in the background by following the {@code next} links,
+ * at most a bounded number of pages ahead of the consumer.
+ */
+public class NewsPageIterator implements Iterator<News>, AutoCloseable {
+
+    // Marks the end of the page sequence
+    private static final NewsResults END = new NewsResults();
+
+    private final BlockingQueue<NewsResults> pages;
+    private final Future<?> producer;
+    private volatile RuntimeException failure;
+
+    private Iterator<News> currentPage = Collections.emptyIterator();
+    private boolean finished;
+
+    /**
+     * Starts downloading pages in the background.
+     *
+     * @param firstPage     supplies the first page, or null if there is nothing to fetch
+     * @param nextPage      downloads the page a {@code next} link points to
+     * @param prefetchPages the maximum number of pages downloaded ahead of the consumer
+     * @param executor      the executor to download pages on
+     */
+    public NewsPageIterator(
+            Supplier<NewsResults> firstPage,
+            Function<String, NewsResults> nextPage,
+            int prefetchPages,
+            ExecutorService executor
+    ) {
+        this.pages = new ArrayBlockingQueue<>(Math.max(1, prefetchPages));
+        this.producer = executor.submit(() -> produce(firstPage, nextPage));
+    }
+
+    /**
+     * Downloads pages one after another until the last page, blocking while the buffer is full.
+     *
+     * @param firstPage supplies the first page
+     * @param nextPage  downloads the page a {@code next} link points to
+     */
+    private void produce(Supplier<NewsResults> firstPage, Function<String, NewsResults> nextPage) {
+        try {
+            NewsResults page = firstPage.get();
+            while (page != null) {
+                pages.put(page);
+                page = page.getNext() == null ? null : nextPage.apply(page.getNext());
+            }
+        } catch (InterruptedException e) {
+            // The consumer closed the iterator
+            Thread.currentThread().interrupt();
+            return;
+        } catch (RuntimeException e) {
+            // Report the failure to the consumer once it reaches the missing page
+            failure = e;
+        }
+
+        try {
+            pages.put(END);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Checks if there are more articles, waiting for the next page if needed.
+     *
+     * @return true if there are more articles, false otherwise
+     * @throws RuntimeException if downloading the next page failed
+     */
+    @Override
+    public boolean hasNext() {
+        while (!currentPage.hasNext()) {
+            if (finished) {
+                return false;
+            }
+
+            NewsResults page = takePage();
+            if (page == END) {
+                finished = true;
+                // Don't let the consumer mistake a failed page for the last one
+                if (failure != null) {
+                    throw failure;
+                }
+                return false;
+            }
+
+            List<News> results = page.getResults();
+            currentPage = results == null ? Collections.emptyIterator() : results.iterator();
+        }
+        return true;
+    }
+
+    @Override
+    public News next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        return currentPage.next();
+    }
+
+    /**
+     * Waits for the next downloaded page.
+     *
+     * @return the next page, or the end marker
+     */
+    private NewsResults takePage() {
+        try {
+            return pages.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for news", e);
+        }
+    }
+
+    /**
+     * Stops downloading further pages.
+     */
+    @Override
+    public void close() {
+        finished = true;
+        producer.cancel(true);
+    }
+
+}
@@ -4,12 +4,17 @@ import com.uvarchev.javatelebot.dto.NewsResults;
 import retrofit2.Call;
 import retrofit2.http.GET;
 import retrofit2.http.Query;
+import retrofit2.http.Url;
 
 public interface SpaceNewsService {
     @GET("/v4/articles/")
     Call<NewsResults> getNews(
             @Query("limit") int limit,
             @Query("news_site") String newsSite,
-            @Query("published_at_gt") String publishedAtGt
+            @Query("published_at_gt") String publishedAtGt,
+            @Query("ordering") String ordering
     );
+
+    @GET
+    Call<NewsResults> getNextPage(@Url String nextPageUrl);
 }
@@ -0,0 +1,133 @@
+package com.uvarchev.javatelebot.periodic;
+
+import com.uvarchev.javatelebot.dto.ProviderCursor;
+import com.uvarchev.javatelebot.enums.NewsProvider;
+import com.uvarchev.javatelebot.network.NewsFetcher;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.*;
+
+/**
+ * A component that decides when each news provider is worth a full fetch.
+ * Providers are polled with lightweight head checks at their own interval,
+ * which is shortened while a provider is publishing and backs off exponentially while it is quiet.
+ */
+@Slf4j
+@Component
+public class AdaptivePoller {
+
+    private final NewsFetcher newsFetcher;
+    private final Duration minInterval;
+    private final Duration maxInterval;
+    private final Map<NewsProvider, PollState> states = new EnumMap<>(NewsProvider.class);
+
+    public AdaptivePoller(
+            NewsFetcher newsFetcher,
+            @Value("${telebot.poll.min-interval-seconds:60}") long minIntervalSeconds,
+            @Value("${telebot.poll.max-interval-seconds:3600}") long maxIntervalSeconds
+    ) {
+        this.newsFetcher = newsFetcher;
+        this.minInterval = Duration.ofSeconds(minIntervalSeconds);
+        this.maxInterval = Duration.ofSeconds(Math.max(minIntervalSeconds, maxIntervalSeconds));
+    }
+
+    /**
+     * Runs a head check for each provider whose poll interval has elapsed
+     * and adjusts its interval according to the outcome.
+     *
+     * @param cursors the cursors of the providers having active subscriptions
+     * @param now     the time of the poll
+     * @return the cursors of the providers that published new articles
+     */
+    public synchronized List<ProviderCursor> pollDueProviders(List<ProviderCursor> cursors, Instant now) {
+        List<ProviderCursor> updated = new ArrayList<>();
+
+        for (ProviderCursor cursor : cursors) {
+            PollState state = states.computeIfAbsent(cursor.getProvider(), provider -> new PollState());
+
+            // Skip providers that are not due yet
+            if (now.isBefore(state.nextPollAt)) {
+                continue;
+            }
+
+            // Look for articles published after the latest one fetched
+            if (hasNewArticles(cursor, state)) {
+                // The provider is publishing, poll it often
+                state.interval = minInterval;
+                updated.add(cursor);
+            } else {
+                // The provider is quiet, poll it less often
+                state.interval = min(state.interval.multipliedBy(2), maxInterval);
+            }
+            state.nextPollAt = now.plus(state.interval);
+        }
+
+        return updated;
+    }
+
+    /**
+     * Records the latest publish time fetched from each provider, so that their next head checks
+     * only look for articles published afterwards, including those the provider ingested late.
+     *
+     * @param latestPublishedAt the latest publish time fetched from each provider
+     */
+    public synchronized void recordFetched(Map<NewsProvider, Instant> latestPublishedAt) {
+        latestPublishedAt.forEach((provider, publishedAt) -> {
+            PollState state = states.computeIfAbsent(provider, ignored -> new PollState());
+            ZonedDateTime fetched = publishedAt.atZone(ZoneOffset.UTC);
+            if (state.latestFetched == null || state.latestFetched.isBefore(fetched)) {
+                state.latestFetched = fetched;
+            }
+        });
+    }
+
+    /**
+     * Forgets the polling state of all providers, so that each of them is checked
+     * from its cursor during the next poll.
+     */
+    public synchronized void reset() {
+        states.clear();
+    }
+
+    /**
+     * Checks if a provider published articles after the latest one fetched from it,
+     * or after its cursor if that is later or nothing was fetched yet.
+     * A failed check counts as no news.
+     *
+     * @param cursor the cursor of the provider
+     * @param state  the polling state of the provider
+     * @return true if there are new articles, false otherwise
+     */
+    private boolean hasNewArticles(ProviderCursor cursor, PollState state) {
+        ZonedDateTime since = state.latestFetched == null || state.latestFetched.isBefore(cursor.getOldestRead())
+                ? cursor.getOldestRead()
+                : state.latestFetched;
+        try {
+            return newsFetcher.hasNewArticles(cursor.getProvider(), since);
+        } catch (RuntimeException e) {
+            log.warn("Failed to check news of " + cursor.getProvider() + ". " + e.getMessage());
+            return false;
+        }
+    }
+
+    private static Duration min(Duration first, Duration second) {
+        return first.compareTo(second) <= 0 ? first : second;
+    }
+
+    /**
+     * Polling state of a single provider.
+     */
+    private class PollState {
+        // Doubled to the minimum interval if the first poll finds no news
+        private Duration interval = minInterval.dividedBy(2);
+        private Instant nextPollAt = Instant.MIN;
+        private ZonedDateTime latestFetched;
+    }
+
+}
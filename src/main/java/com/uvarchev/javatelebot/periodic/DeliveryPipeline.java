@@ -0,0 +1,220 @@
+package com.uvarchev.javatelebot.periodic;
+
+import com.uvarchev.javatelebot.dto.DispatchResult;
+import com.uvarchev.javatelebot.dto.DistributionResult;
+import com.uvarchev.javatelebot.dto.ProviderCursor;
+import com.uvarchev.javatelebot.entity.OutboxMessage;
+import com.uvarchev.javatelebot.service.SchedulerService;
+import com.uvarchev.javatelebot.service.ShardLeaseService;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.*;
+
+/**
+ * A component that joins the distribution and the sending of news updates.
+ * Distribution commits outbox messages block by block and signals each block through a bounded queue;
+ * a sender thread delivers committed messages meanwhile. Distribution waits once the sender falls
+ * the queue's capacity of blocks behind, which keeps the outbox backlog bounded.
+ */
+@Slf4j
+@Component
+public class DeliveryPipeline {
+
+    // Signals that distribution has finished
+    private static final int END_OF_RUN = -1;
+
+    private final SchedulerService schedulerService;
+    private final ReplyDispatcher replyDispatcher;
+    private final ShardLeaseService shardLeaseService;
+    private final int queueCapacity;
+    private final ExecutorService sender;
+
+    private final Timer distributeTimer;
+    private final Timer sendTimer;
+    private final Timer completeTimer;
+
+    // Queue of the current run, measured by the queue depth gauge
+    private volatile BlockingQueue<Integer> committedBlocks = new ArrayBlockingQueue<>(1);
+
+    public DeliveryPipeline(
+            SchedulerService schedulerService,
+            ReplyDispatcher replyDispatcher,
+            ShardLeaseService shardLeaseService,
+            MeterRegistry meterRegistry,
+            @Value("${telebot.pipeline.queue-capacity:4}") int queueCapacity
+    ) {
+        this.schedulerService = schedulerService;
+        this.replyDispatcher = replyDispatcher;
+        this.shardLeaseService = shardLeaseService;
+        this.queueCapacity = Math.max(1, queueCapacity);
+        this.sender = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "delivery-pipeline");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        Gauge.builder("telebot.pipeline.queue.depth", this, pipeline -> pipeline.committedBlocks.size())
+                .description("Committed blocks of outbox messages waiting for the sender")
+                .register(meterRegistry);
+        this.distributeTimer = stageTimer(meterRegistry, "distribute");
+        this.sendTimer = stageTimer(meterRegistry, "send");
+        this.completeTimer = stageTimer(meterRegistry, "complete");
+    }
+
+    /**
+     * Distributes news of the given providers and sends them as soon as each block is committed.
+     * Returns once all messages of the run were processed.
+     *
+     * @param cursors the cursors of the providers to fetch
+     * @return the number of enqueued messages and the latest publish time fetched from each provider
+     */
+    public DistributionResult run(List<ProviderCursor> cursors) {
+        BlockingQueue<Integer> queue = new ArrayBlockingQueue<>(queueCapacity);
+        committedBlocks = queue;
+
+        // Start sending committed blocks
+        Future<?> sending = sender.submit(() -> consume(queue));
+
+        long[] blockStart = {System.nanoTime()};
+        try {
+            // Distribute news, handing over each committed block
+            return schedulerService.enqueueScheduledNewsUpdate(cursors, blockCount -> {
+                long now = System.nanoTime();
+                distributeTimer.record(now - blockStart[0], TimeUnit.NANOSECONDS);
+                if (blockCount > 0) {
+                    signal(queue, blockCount);
+                }
+                blockStart[0] = System.nanoTime();
+            });
+        } finally {
+            // Let the sender finish the committed blocks, even if distribution failed
+            signal(queue, END_OF_RUN);
+            awaitSender(sending);
+        }
+    }
+
+    /**
+     * Sends pending outbox messages batch by batch and records the results.
+     * Lease ownership is checked before each batch, and sending stops once any shard held
+     * at the start was lost, so that the node taking it over doesn't send the same messages.
+     *
+     * @return false if a batch made no progress or shards were lost and sending was stopped, true otherwise
+     */
+    public boolean sendPendingDeliveries() {
+        Set<Integer> shards = shardLeaseService.getOwnedShards();
+        List<OutboxMessage> batch = schedulerService.loadPendingDeliveries();
+        while (!batch.isEmpty()) {
+            List<OutboxMessage> currentBatch = batch;
+
+            // Stop if the leases lapsed since sending started, surplus shards are only handed over between runs
+            if (!shardLeaseService.getOwnedShards().containsAll(shards)) {
+                log.warn("Sending stopped, shard leases of this node were lost");
+                return false;
+            }
+
+            // Send replies concurrently and collect the delivery results
+            DispatchResult result = sendTimer.record(() ->
+                    replyDispatcher.dispatch(schedulerService.composeReplies(currentBatch))
+            );
+
+            // Persist delivery results of the batch
+            completeTimer.record(() -> schedulerService.completeDeliveries(currentBatch, result));
+
+            // Stop if the batch made no progress, remaining messages are resumed during the next run
+            if (result.getDeliveredOutboxIds().isEmpty() && result.getFailedAttempts().isEmpty()) {
+                log.warn("Sending interrupted, undelivered messages are left in the outbox");
+                return false;
+            }
+
+            batch = schedulerService.loadPendingDeliveries();
+        }
+        return true;
+    }
+
+    /**
+     * Sends messages of each committed block until the end of the run is signalled.
+     * Once sending stalls or fails, the remaining signals are only drained and the messages
+     * are left to the next run.
+     *
+     * @param queue the queue of committed blocks
+     */
+    private void consume(BlockingQueue<Integer> queue) {
+        boolean stalled = false;
+        try {
+            while (true) {
+                int blockCount = queue.take();
+
+                // Keep draining the queue after a stall or a failure, so that distribution is not blocked
+                if (!stalled) {
+                    try {
+                        stalled = !sendPendingDeliveries();
+                    } catch (RuntimeException e) {
+                        log.warn("Sending failed, undelivered messages are left in the outbox. " + e.getMessage());
+                        stalled = true;
+                    }
+                }
+
+                if (blockCount == END_OF_RUN) {
+                    return;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Hands a signal over to the sender, waiting while the queue is full.
+     *
+     * @param queue  the queue of committed blocks
+     * @param signal the number of messages of a committed block, or the end of the run
+     */
+    private void signal(BlockingQueue<Integer> queue, int signal) {
+        try {
+            queue.put(signal);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the sender", e);
+        }
+    }
+
+    /**
+     * Waits until the sender has processed all committed blocks.
+     *
+     * @param sending the sender's task of the current run
+     */
+    private void awaitSender(Future<?> sending) {
+        try {
+            sending.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            sending.cancel(true);
+        } catch (ExecutionException e) {
+            log.warn("Sending failed. " + e.getCause().getMessage());
+        }
+    }
+
+    /**
+     * Creates a timer measuring a stage of the pipeline.
+     */
+    private static Timer stageTimer(MeterRegistry meterRegistry, String stage) {
+        return Timer.builder("telebot.pipeline.stage")
+                .description("Time spent in a stage of the news delivery pipeline")
+                .tag("stage", stage)
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    private void shutdown() {
+        sender.shutdownNow();
+    }
+
+}
@@ -0,0 +1,188 @@
+package com.uvarchev.javatelebot.periodic;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.uvarchev.javatelebot.bot.Telebot;
+import com.uvarchev.javatelebot.dto.DispatchResult;
+import com.uvarchev.javatelebot.dto.Reply;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A component that sends replies to their recipients concurrently while respecting
+ * Telegram's global and per-chat rate limits.
+ * Replies addressed to the same user are sent sequentially and in their original order.
+ * Requests are sent asynchronously, so the dispatcher's threads only wait for the rate limits.
+ * Rate limiters of the chats are kept between dispatching sessions,
+ * so that consecutive sessions don't exceed the per-chat limit of a user.
+ */
+@Slf4j
+@Component
+public class ReplyDispatcher {
+
+    private final Telebot telebot;
+    private final ScheduledExecutorService executor;
+    private final TokenBucket globalBucket;
+    private final double chatRate;
+    // Rate limiters of recently served chats, by user id
+    private final Cache<Long, TokenBucket> chatBuckets;
+
+    public ReplyDispatcher(
+            Telebot telebot,
+            @Value("${telebot.dispatch.threads:8}") int threads,
+            @Value("${telebot.dispatch.global-rate:30}") double globalRate,
+            @Value("${telebot.dispatch.chat-rate:1}") double chatRate,
+            @Value("${telebot.dispatch.chat-buckets:10000}") long maxChatBuckets
+    ) {
+        this.telebot = telebot;
+        this.globalBucket = new TokenBucket(globalRate, (int) Math.max(1, globalRate));
+        this.chatRate = chatRate;
+
+        // An idle bucket is as good as a new one once its next permit is due, so expiry never loosens the limit
+        Duration permitInterval = Duration.ofNanos((long) (TimeUnit.SECONDS.toNanos(1) / chatRate));
+        this.chatBuckets = Caffeine.newBuilder()
+                .maximumSize(maxChatBuckets)
+                .expireAfterAccess(permitInterval.plusMinutes(1))
+                .build();
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = Executors.newScheduledThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "reply-dispatcher-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Sends all replies from the queue and waits until every recipient was processed.
+     * Sending to a recipient stops at its first failed attempt.
+     *
+     * @param replies the queue of replies to be sent
+     * @return the accumulated result of the dispatching session
+     */
+    public DispatchResult dispatch(Queue<Reply> replies) {
+        DispatchResult result = new DispatchResult();
+
+        // Group replies by recipient, preserving their order
+        Map<Long, Deque<Reply>> repliesByUser = new LinkedHashMap<>();
+        while (!replies.isEmpty()) {
+            Reply reply = replies.poll();
+            repliesByUser.computeIfAbsent(reply.getUserId(), id -> new ArrayDeque<>()).offer(reply);
+        }
+
+        // Start an independent sending chain for each recipient
+        CountDownLatch completed = new CountDownLatch(repliesByUser.size());
+        repliesByUser.forEach((userId, userReplies) -> {
+            TokenBucket chatBucket = chatBuckets.get(userId, id -> new TokenBucket(chatRate, 1));
+            scheduleNext(userReplies, chatBucket, result, completed);
+        });
+
+        try {
+            completed.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Dispatching was interrupted, " + completed.getCount() + " recipients left unprocessed");
+        }
+
+        return result;
+    }
+
+    /**
+     * Schedules sending of the recipient's next reply once its chat permits it.
+     *
+     * @param userReplies the remaining replies of a single recipient
+     * @param chatBucket  the rate limiter of the recipient's chat
+     * @param result      the accumulator of the dispatching session
+     * @param completed   the latch to be counted down when the recipient is processed
+     */
+    private void scheduleNext(
+            Deque<Reply> userReplies,
+            TokenBucket chatBucket,
+            DispatchResult result,
+            CountDownLatch completed
+    ) {
+        executor.schedule(
+                () -> sendNext(userReplies, chatBucket, result, completed),
+                chatBucket.reserve(),
+                TimeUnit.NANOSECONDS
+        );
+    }
+
+    /**
+     * Sends the recipient's next reply without waiting for the response,
+     * and schedules the following one once it was delivered.
+     *
+     * @param userReplies the remaining replies of a single recipient
+     * @param chatBucket  the rate limiter of the recipient's chat
+     * @param result      the accumulator of the dispatching session
+     * @param completed   the latch to be counted down when the recipient is processed
+     */
+    private void sendNext(
+            Deque<Reply> userReplies,
+            TokenBucket chatBucket,
+            DispatchResult result,
+            CountDownLatch completed
+    ) {
+        Reply reply = userReplies.poll();
+
+        try {
+            globalBucket.acquire();
+            telebot.sendMessageAsync(reply).whenComplete((delivery, error) ->
+                    completeNext(delivery != null && delivery.isDelivered(), reply, userReplies, chatBucket, result, completed)
+            );
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            completeNext(false, reply, userReplies, chatBucket, result, completed);
+        } catch (RuntimeException e) {
+            log.warn("Failed to send message to id " + reply.getUserId() + ". " + e.getMessage());
+            completeNext(false, reply, userReplies, chatBucket, result, completed);
+        }
+    }
+
+    /**
+     * Records the outcome of sending the recipient's reply and schedules the following one if it was delivered.
+     *
+     * @param delivered   whether the reply was delivered
+     * @param reply       the reply that was sent
+     * @param userReplies the remaining replies of a single recipient
+     * @param chatBucket  the rate limiter of the recipient's chat
+     * @param result      the accumulator of the dispatching session
+     * @param completed   the latch to be counted down when the recipient is processed
+     */
+    private void completeNext(
+            boolean delivered,
+            Reply reply,
+            Deque<Reply> userReplies,
+            TokenBucket chatBucket,
+            DispatchResult result,
+            CountDownLatch completed
+    ) {
+        if (delivered) {
+            result.registerDelivered(reply);
+        } else {
+            // Stop sending next updates during this session to this user
+            result.registerFailed(reply.getUserId());
+            completed.countDown();
+            return;
+        }
+
+        if (userReplies.isEmpty()) {
+            completed.countDown();
+        } else {
+            scheduleNext(userReplies, chatBucket, result, completed);
+        }
+    }
+
+    @PreDestroy
+    private void shutdown() {
+        executor.shutdownNow();
+    }
+
+}
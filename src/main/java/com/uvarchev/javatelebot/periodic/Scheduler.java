@@ -1,15 +1,22 @@
 package com.uvarchev.javatelebot.periodic;
 
 import com.uvarchev.javatelebot.bot.Telebot;
+import com.uvarchev.javatelebot.dto.DistributionResult;
+import com.uvarchev.javatelebot.dto.ProviderCursor;
 import com.uvarchev.javatelebot.dto.Reply;
 import com.uvarchev.javatelebot.service.SchedulerService;
+import com.uvarchev.javatelebot.service.ShardLeaseService;
+import com.uvarchev.javatelebot.service.StatisticsRegistry;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
-import java.time.ZonedDateTime;
-import java.util.*;
+import java.time.Instant;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 /**
  * A component class that handles the scheduling tasks.
@@ -22,55 +29,137 @@ public class Scheduler {
     private Telebot telebot;
     @Autowired
     private SchedulerService schedulerService;
+    @Autowired
+    private DeliveryPipeline deliveryPipeline;
+    @Autowired
+    private AdaptivePoller adaptivePoller;
+    @Autowired
+    private ShardLeaseService shardLeaseService;
+    @Autowired
+    private StatisticsRegistry statisticsRegistry;
+
+    // Shards processed during the previous news task
+    private Set<Integer> processedShards = Set.of();
 
     /**
-     * A scheduled task that runs every hour to get and send news updates to subscribers.
+     * A scheduled task that polls news providers and sends news updates to subscribers.
+     * Each provider is checked at its own adaptive interval, and only providers that published
+     * new articles are fully fetched.
+     * Messages are stored in the delivery outbox first and sent in batches while distribution continues,
+     * so that a run interrupted by a restart is resumed from the first undelivered message.
      */
-    @Scheduled(cron = "0 0 * * * *")
+    @Scheduled(
+            fixedDelayString = "${telebot.poll.tick-seconds:15}",
+            initialDelayString = "${telebot.poll.tick-seconds:15}",
+            timeUnit = TimeUnit.SECONDS
+    )
     private void getAndSendNewsUpdate() {
-        // Get a Reply object Queue with generated messages and addresses
-        Queue<Reply> replyQueue = schedulerService.fetchScheduledNewsUpdate();
+        // Keep the shards of this node until the run ends, so that no other node sends to them meanwhile
+        shardLeaseService.beginRun();
+        try {
+            sendNewsUpdate();
+        } finally {
+            shardLeaseService.endRun();
+        }
+    }
 
-        // Validate received replyQueue
-        if (replyQueue == null) {
-            // Update log and exit scheduler
-            log.info("Scheduled task completed, no active subscriptions for any active user found");
+    /**
+     * Resumes the previous run if it left undelivered messages, or distributes and sends new articles otherwise.
+     */
+    private void sendNewsUpdate() {
+        // Check if this node holds any shards
+        Set<Integer> shards = shardLeaseService.getOwnedShards();
+        if (shards.isEmpty()) {
+            log.debug("Scheduled task skipped, no shards are held by this node");
+            return;
+        }
+
+        // Newly taken over subscribers may be behind, look for their articles from their own cursors
+        if (!shards.equals(processedShards)) {
+            adaptivePoller.reset();
+            processedShards = shards;
+        }
+
+        // Check if the previous run left any undelivered messages
+        if (schedulerService.hasPendingDeliveries()) {
+            // Resume the previous run before fetching new articles
+            log.info("Scheduled task resumed, sending undelivered messages of the previous run");
+            deliveryPipeline.sendPendingDeliveries();
+            completeRun();
             return;
-        } else if (replyQueue.isEmpty()) {
+        }
+
+        // Collect the cursor of each news provider having active subscriptions
+        List<ProviderCursor> cursors = schedulerService.getActiveProviderCursors();
+        if (cursors.isEmpty()) {
             // Update log and exit scheduler
-            log.info("Scheduled task completed, no new articles were found");
+            log.debug("Scheduled task completed, no active subscriptions for any active user found");
             return;
         }
 
-        // Save current time
-        final ZonedDateTime currentTime = ZonedDateTime.now();
+        // Check providers that are due and keep those that published new articles
+        Instant pollTime = Instant.now();
+        List<ProviderCursor> updatedProviders = adaptivePoller.pollDueProviders(cursors, pollTime);
+        if (updatedProviders.isEmpty()) {
+            // Update log and exit scheduler
+            log.debug("Scheduled task completed, no new articles were found");
+            return;
+        }
 
-        // Keep track of failed attempt addresses
-        List<Long> failedAttempts = new LinkedList<>();
+        // Distribute news and send each block as soon as it is committed to the outbox
+        DistributionResult distribution = deliveryPipeline.run(updatedProviders);
+        adaptivePoller.recordFetched(distribution.getLatestPublishedAt());
 
-        // Keep track of how many articles did each user receive during one session
-        Map<Long, Long> articlesReceivedCount = new HashMap<>();
+        // Validate the number of enqueued messages
+        if (distribution.getEnqueuedCount() == 0) {
+            // Update log and exit scheduler
+            log.info("Scheduled task completed, no new articles for subscribers were found");
+            return;
+        }
 
-        // Save successfully sent subscription ids
-        Set<Long> receivedSubscriptionIds = new HashSet<>();
+        completeRun();
+    }
 
-        // For each reply object
-        while (!replyQueue.isEmpty()) {
-            // Try to send reply via Telegram and update subscription's last read id
-            processReply(replyQueue.poll(), failedAttempts, articlesReceivedCount, receivedSubscriptionIds);
+    /**
+     * Removes delivered and dropped messages from the outbox, unless sending was interrupted.
+     */
+    private void completeRun() {
+        // Leave the outbox as it is if any messages are still pending
+        if (schedulerService.hasPendingDeliveries()) {
+            log.warn("Scheduled task interrupted, undelivered messages are left in the outbox");
+            return;
         }
 
-        // Increment articles received count in the database for each user who received updates
-        schedulerService.incrementReplyCount(articlesReceivedCount);
-        // Update LastReadId for each subscription sent
-        schedulerService.updateSubscriptionListLastReadTime(receivedSubscriptionIds, currentTime);
+        // Remove delivered and dropped messages from the outbox
+        schedulerService.purgeCompletedMessages();
 
         // Update log
         log.info("Scheduled task completed, new articles were successfully sent to subscribers");
     }
 
+    /**
+     * A scheduled task that reconciles the in-memory statistics with the database.
+     */
+    @Scheduled(
+            fixedDelayString = "${telebot.statistics.reconcile-minutes:60}",
+            initialDelayString = "${telebot.statistics.reconcile-minutes:60}",
+            timeUnit = TimeUnit.MINUTES
+    )
+    private void reconcileStatistics() {
+        try {
+            statisticsRegistry.reconcile();
+        } catch (RuntimeException e) {
+            log.warn("Failed to reconcile statistics. " + e.getMessage());
+        }
+    }
+
     @Scheduled(cron = "5 0 8 * * *")
     private void sendDailyStatistics() {
+        // Statistics are sent by a single node only
+        if (!shardLeaseService.isLeader()) {
+            return;
+        }
+
         // Get daily statistics in the form of Reply
         Queue<Reply> replies = schedulerService.getDailyStatistics();
 
@@ -89,50 +178,4 @@ public class Scheduler {
         log.info("Daily Statistics was sent to all administrators");
     }
 
-    /**
-     * Processes a single reply object and sends it to the user via Telegram.
-     * Skips sending of the updates to a recipients that failed to receive an update.
-     *
-     * @param reply                   The reply object containing the user id, message, and subscription id.
-     * @param failedAttempts          The list of user ids that failed to receive a message.
-     * @param articlesReceivedCount   The map of user ids and the number of articles they received.
-     * @param receivedSubscriptionIds The list of subscription ids that were successfully sent to the users.
-     */
-    private void processReply(
-            Reply reply,
-            List<Long> failedAttempts,
-            Map<Long, Long> articlesReceivedCount,
-            Set<Long> receivedSubscriptionIds
-    ) {
-        // Check if the address is amongst the failed attempt addresses
-        if (failedAttempts.contains(reply.getUserId())) {
-            // Skip sending update to userId from a failed attempts list
-            return;
-        }
-
-        // Send a message to the user and check if it was successfully sent
-        if (telebot.sendMessage(reply)) {
-            // Increment user's articles received count
-            incrementArticlesReceived(articlesReceivedCount, reply.getUserId());
-            // Save subscription id
-            receivedSubscriptionIds.add(reply.getSubscriptionId());
-        } else {
-            // Stop sending next updates during this session to this user by remembering its userId
-            failedAttempts.add(reply.getUserId());
-        }
-    }
-
-    /**
-     * A helper method that increments the number of articles received by a user in a map.
-     *
-     * @param map    the map that stores the user ids and the number of articles received
-     * @param userId the user id to be incremented
-     */
-    private void incrementArticlesReceived(Map<Long, Long> map, Long userId) {
-        map.compute(
-                userId,
-                (key, value) -> (value == null) ? 1 : ++value
-        );
-    }
-
 }
@@ -0,0 +1,64 @@
+package com.uvarchev.javatelebot.periodic;
+
+import com.uvarchev.javatelebot.service.ShardLeaseService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A component that renews the shard leases of this node and rebalances shards between nodes.
+ * Heartbeats run on a thread of their own, so that a long news run on the shared scheduling thread
+ * doesn't let the leases expire while the node is still sending.
+ */
+@Slf4j
+@Component
+public class ShardHeartbeat {
+
+    private final ShardLeaseService shardLeaseService;
+    private final long heartbeatSeconds;
+    private final ScheduledExecutorService executor;
+
+    public ShardHeartbeat(
+            ShardLeaseService shardLeaseService,
+            @Value("${telebot.shard.heartbeat-seconds:10}") long heartbeatSeconds
+    ) {
+        this.shardLeaseService = shardLeaseService;
+        this.heartbeatSeconds = heartbeatSeconds;
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "shard-heartbeat");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Starts sending heartbeats, the first one immediately.
+     */
+    @PostConstruct
+    private void start() {
+        executor.scheduleWithFixedDelay(this::renewShardLeases, 0, heartbeatSeconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Renews the shard leases of this node, a failed attempt is retried with the next heartbeat.
+     */
+    void renewShardLeases() {
+        try {
+            shardLeaseService.heartbeat();
+        } catch (RuntimeException e) {
+            log.warn("Failed to renew shard leases. " + e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    private void shutdown() {
+        executor.shutdownNow();
+    }
+
+}
@@ -0,0 +1,63 @@
+package com.uvarchev.javatelebot.periodic;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A thread-safe token bucket that limits the rate of operations.
+ * Permits are handed out by reservation: the caller gets the time it has to wait
+ * before its permit becomes valid, so it can either sleep or schedule the operation later.
+ */
+public class TokenBucket {
+
+    private final long nanosPerPermit;
+    private final long burstTolerance;
+
+    // Theoretical time at which the next permit is issued
+    private long nextPermitAt;
+
+    /**
+     * Creates a token bucket.
+     *
+     * @param permitsPerSecond the sustained number of permits per second
+     * @param capacity         the maximum number of permits that can be taken at once
+     */
+    public TokenBucket(double permitsPerSecond, int capacity) {
+        if (permitsPerSecond <= 0 || capacity < 1) {
+            throw new IllegalArgumentException("Rate and capacity must be positive");
+        }
+        this.nanosPerPermit = (long) (TimeUnit.SECONDS.toNanos(1) / permitsPerSecond);
+        this.burstTolerance = nanosPerPermit * (capacity - 1);
+        this.nextPermitAt = System.nanoTime();
+    }
+
+    /**
+     * Reserves a single permit.
+     *
+     * @return the number of nanoseconds the caller has to wait before using the permit
+     */
+    public synchronized long reserve() {
+        long now = System.nanoTime();
+
+        // An idle bucket doesn't accumulate more than its capacity
+        if (nextPermitAt < now) {
+            nextPermitAt = now;
+        }
+
+        long waitNanos = Math.max(0, nextPermitAt - burstTolerance - now);
+        nextPermitAt += nanosPerPermit;
+        return waitNanos;
+    }
+
+    /**
+     * Reserves a single permit and blocks until it becomes valid.
+     *
+     * @throws InterruptedException if the thread was interrupted while waiting
+     */
+    public void acquire() throws InterruptedException {
+        long waitNanos = reserve();
+        if (waitNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+    }
+
+}
@@ -0,0 +1,30 @@
+package com.uvarchev.javatelebot.repository;
+
+import com.uvarchev.javatelebot.entity.OutboxBody;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+@Repository
+public interface OutboxBodyRepository extends CrudRepository<OutboxBody, Long> {
+
+    /**
+     * Deletes message bodies that are no longer referenced by any outbox message.
+     *
+     * @return the number of deleted bodies
+     */
+    @Transactional
+    @Modifying
+    @Query(
+            value = "DELETE FROM OutboxBody b " +
+                    " WHERE NOT EXISTS ( " +
+                    "     SELECT o.id " +
+                    "     FROM OutboxMessage o " +
+                    "     WHERE o.bodyId = b.id " +
+                    "     )"
+    )
+    int deleteUnreferenced();
+
+}
@@ -0,0 +1,114 @@
+package com.uvarchev.javatelebot.repository;
+
+import com.uvarchev.javatelebot.dto.SubscriptionCursor;
+import com.uvarchev.javatelebot.entity.OutboxMessage;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface OutboxRepository extends CrudRepository<OutboxMessage, Long> {
+
+    /**
+     * Counts messages to users in the given shards that were neither delivered nor dropped yet.
+     *
+     * @param shardCount the total number of shards
+     * @param shards     the shards whose recipients are included
+     * @return the number of pending messages
+     */
+    @Query(
+            value = "SELECT count(o) " +
+                    " FROM OutboxMessage o " +
+                    " WHERE o.isDelivered = false " +
+                    "     AND o.isDropped = false " +
+                    "     AND MOD(o.telegramId, :shardCount) IN :shards"
+    )
+    long countPending(int shardCount, Collection<Integer> shards);
+
+    /**
+     * Returns the first pending messages to users in the given shards,
+     * grouped by recipient and ordered by creation.
+     *
+     * @param shardCount the total number of shards
+     * @param shards     the shards whose recipients are included
+     * @param pageable   the page request limiting the number of messages returned
+     * @return a list of messages that were neither delivered nor dropped yet
+     */
+    @Query(
+            value = "SELECT o " +
+                    " FROM OutboxMessage o " +
+                    " WHERE o.isDelivered = false " +
+                    "     AND o.isDropped = false " +
+                    "     AND MOD(o.telegramId, :shardCount) IN :shards " +
+                    " ORDER BY o.telegramId, o.id"
+    )
+    List<OutboxMessage> findPending(int shardCount, Collection<Integer> shards, Pageable pageable);
+
+    /**
+     * Returns the earliest cursor target among undelivered messages of each subscription of the given recipients.
+     * Dropped messages are included, as they hold back the cursors of their subscriptions.
+     *
+     * @param telegramIds the user ids of the recipients
+     * @return a list of subscription cursors, one per subscription having pending messages
+     */
+    @Query(
+            value = "SELECT new com.uvarchev.javatelebot.dto.SubscriptionCursor(o.subscriptionId, min(o.cursorTarget)) " +
+                    " FROM OutboxMessage o " +
+                    " WHERE o.isDelivered = false " +
+                    "     AND o.telegramId IN :telegramIds " +
+                    " GROUP BY o.subscriptionId"
+    )
+    List<SubscriptionCursor> findEarliestPendingByTelegramIds(Collection<Long> telegramIds);
+
+    /**
+     * Marks messages with the given ids as delivered.
+     *
+     * @param ids the ids of the delivered messages
+     * @return the number of messages marked as delivered
+     */
+    @Transactional
+    @Modifying
+    @Query(
+            value = "UPDATE OutboxMessage o " +
+                    " SET o.isDelivered = true " +
+                    " WHERE o.id IN :ids"
+    )
+    int markDelivered(Collection<Long> ids);
+
+    /**
+     * Marks pending messages of the given recipients as dropped, so that they are no longer sent.
+     *
+     * @param telegramIds the user ids of the recipients
+     * @return the number of dropped messages
+     */
+    @Transactional
+    @Modifying
+    @Query(
+            value = "UPDATE OutboxMessage o " +
+                    " SET o.isDropped = true " +
+                    " WHERE o.isDelivered = false " +
+                    "     AND o.telegramId IN :telegramIds"
+    )
+    int markDroppedByTelegramIds(Collection<Long> telegramIds);
+
+    /**
+     * Deletes all delivered and dropped messages.
+     *
+     * @return the number of deleted messages
+     */
+    @Transactional
+    @Modifying
+    @Query(
+            value = "DELETE FROM OutboxMessage o " +
+                    " WHERE o.isDelivered = true " +
+                    "     OR o.isDropped = true"
+    )
+    int deleteCompleted();
+
+}
@@ -0,0 +1,42 @@
+package com.uvarchev.javatelebot.repository;
+
+import com.uvarchev.javatelebot.entity.SchedulerNode;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.ZonedDateTime;
+
+@Repository
+public interface SchedulerNodeRepository extends CrudRepository<SchedulerNode, String> {
+
+    /**
+     * Counts nodes whose heartbeat has not expired yet.
+     *
+     * @param now the current time
+     * @return the number of live nodes
+     */
+    @Query(
+            value = "SELECT count(n) " +
+                    " FROM SchedulerNode n " +
+                    " WHERE n.expiresAt >= :now"
+    )
+    long countLive(ZonedDateTime now);
+
+    /**
+     * Deletes nodes whose heartbeat has expired.
+     *
+     * @param now the current time
+     * @return the number of deleted nodes
+     */
+    @Transactional
+    @Modifying
+    @Query(
+            value = "DELETE FROM SchedulerNode n " +
+                    " WHERE n.expiresAt < :now"
+    )
+    int deleteExpired(ZonedDateTime now);
+
+}
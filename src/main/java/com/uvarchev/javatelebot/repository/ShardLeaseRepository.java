@@ -0,0 +1,113 @@
+package com.uvarchev.javatelebot.repository;
+
+import com.uvarchev.javatelebot.entity.ShardLease;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.ZonedDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ShardLeaseRepository extends CrudRepository<ShardLease, Integer> {
+
+    /**
+     * Creates the lease row of a shard.
+     *
+     * @param shardId the id of the shard
+     * @return the number of created rows
+     */
+    @Transactional
+    @Modifying
+    @Query(
+            value = "INSERT INTO ShardLease (shardId) " +
+                    " VALUES (:shardId)"
+    )
+    int insertShard(Integer shardId);
+
+    /**
+     * Claims a shard for a node if it is free, expired or already held by the node.
+     *
+     * @param shardId   the id of the shard to claim
+     * @param ownerId   the id of the claiming node
+     * @param expiresAt the new expiry time of the lease
+     * @param now       the current time
+     * @return 1 if the shard was claimed, 0 if another node holds it
+     */
+    @Transactional
+    @Modifying
+    @Query(
+            value = "UPDATE ShardLease l " +
+                    " SET l.ownerId = :ownerId, l.expiresAt = :expiresAt " +
+                    " WHERE l.shardId = :shardId " +
+                    "     AND (l.ownerId = :ownerId OR l.ownerId IS NULL OR l.expiresAt < :now)"
+    )
+    int claim(Integer shardId, String ownerId, ZonedDateTime expiresAt, ZonedDateTime now);
+
+    /**
+     * Extends all leases held by a node.
+     *
+     * @param ownerId   the id of the node
+     * @param expiresAt the new expiry time of the leases
+     * @return the number of renewed leases
+     */
+    @Transactional
+    @Modifying
+    @Query(
+            value = "UPDATE ShardLease l " +
+                    " SET l.expiresAt = :expiresAt " +
+                    " WHERE l.ownerId = :ownerId"
+    )
+    int renew(String ownerId, ZonedDateTime expiresAt);
+
+    /**
+     * Releases the given leases held by a node, so that other nodes can claim them immediately.
+     *
+     * @param ownerId  the id of the node
+     * @param shardIds the ids of the shards to release
+     * @return the number of released leases
+     */
+    @Transactional
+    @Modifying
+    @Query(
+            value = "UPDATE ShardLease l " +
+                    " SET l.ownerId = null, l.expiresAt = null " +
+                    " WHERE l.ownerId = :ownerId " +
+                    "     AND l.shardId IN :shardIds"
+    )
+    int release(String ownerId, Collection<Integer> shardIds);
+
+    /**
+     * Returns the ids of the shards held by a node.
+     *
+     * @param ownerId the id of the node
+     * @return a list of shard ids in ascending order
+     */
+    @Query(
+            value = "SELECT l.shardId " +
+                    " FROM ShardLease l " +
+                    " WHERE l.ownerId = :ownerId " +
+                    " ORDER BY l.shardId"
+    )
+    List<Integer> findShardIdsByOwnerId(String ownerId);
+
+    /**
+     * Returns the ids of the shards that are free or whose lease has expired.
+     *
+     * @param shardCount the number of shards in use
+     * @param now        the current time
+     * @return a list of shard ids in ascending order
+     */
+    @Query(
+            value = "SELECT l.shardId " +
+                    " FROM ShardLease l " +
+                    " WHERE l.shardId < :shardCount " +
+                    "     AND (l.ownerId IS NULL OR l.expiresAt < :now) " +
+                    " ORDER BY l.shardId"
+    )
+    List<Integer> findClaimableShardIds(int shardCount, ZonedDateTime now);
+
+}
@@ -1,7 +1,10 @@
 package com.uvarchev.javatelebot.repository;
 
+import com.uvarchev.javatelebot.dto.ProviderCount;
+import com.uvarchev.javatelebot.dto.ProviderCursor;
+import com.uvarchev.javatelebot.dto.SubscriptionRow;
 import com.uvarchev.javatelebot.entity.Subscription;
-import com.uvarchev.javatelebot.enums.NewsProvider;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
@@ -9,6 +12,7 @@ import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.ZonedDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -30,77 +34,87 @@ public interface SubscriptionRepository extends CrudRepository<Subscription, Lon
     int deactivateAllUserSubscriptionsByUserId(Long userId);
 
     /**
-     * Counts subscriptions by active status.
+     * Sets the last read time of the subscriptions with the given ids in a single statement.
      *
-     * @param activeStatus the active status to filter by
-     * @return the number of users with the given active status
+     * @param ids        the ids of the subscriptions to update
+     * @param lastReadId the new last read time
+     * @return the number of updated subscriptions
      */
+    @Transactional
+    @Modifying
     @Query(
-            value = "SELECT count(s) " +
-                    " FROM Subscription s " +
-                    " WHERE s.isActive = :activeStatus "
+            value = "UPDATE Subscription s " +
+                    " SET s.lastReadId = :lastReadId " +
+                    " WHERE s.id IN :ids"
     )
-    int countAllByActiveIs(boolean activeStatus);
+    int updateLastReadIdByIds(Collection<Long> ids, ZonedDateTime lastReadId);
 
     /**
-     * Returns a list of subscriptions that are currently active.
+     * Returns a page of currently active subscriptions of users in the given shards as flat rows,
+     * ordered by subscription id.
+     * Pages are read with keyset pagination: the next page starts after the last id of the previous one.
      *
-     * @return a list of active Subscription objects
+     * @param lastId     the id of the last subscription of the previous page, or 0 for the first page
+     * @param shardCount the total number of shards
+     * @param shards     the shards whose users are included
+     * @param pageable   the page request limiting the number of rows returned
+     * @return a list of active subscription rows with ids greater than lastId
      */
     @Query(
-            value = "SELECT s " +
+            value = "SELECT new com.uvarchev.javatelebot.dto.SubscriptionRow(" +
+                    "     s.id, s.user.telegramId, s.provider, s.lastReadId) " +
                     " FROM Subscription s " +
-                    " WHERE s.isActive = true"
+                    " WHERE s.isActive = true " +
+                    "     AND s.id > :lastId " +
+                    "     AND MOD(s.user.telegramId, :shardCount) IN :shards " +
+                    " ORDER BY s.id"
     )
-    List<Subscription> findAllActiveSubscriptions();
+    List<SubscriptionRow> findActiveSubscriptionRowsAfter(
+            Long lastId,
+            int shardCount,
+            Collection<Integer> shards,
+            Pageable pageable
+    );
 
     /**
-     * Returns a list of news providers that have the most active subscriptions in the database.
-     * The query selects the providers that have the same number of active subscriptions as
-     * the maximum count of any provider in the table.
+     * Returns the oldest last read time of active subscriptions of users in the given shards
+     * for each news provider having at least one such subscription.
      *
-     * @return a list of news providers with the most active subscriptions
+     * @param shardCount the total number of shards
+     * @param shards     the shards whose users are included
+     * @return a list of provider cursors
      */
-    @Query( // Get providers with the maximum number of occurrences
-            value = "SELECT s.provider " +
+    @Query(
+            value = "SELECT new com.uvarchev.javatelebot.dto.ProviderCursor(s.provider, min(s.lastReadId)) " +
                     " FROM Subscription s " +
-                    " WHERE s.isActive " +
-                    " GROUP BY s.provider " +
-                    " HAVING count(s.provider) = ( " +
-                    // Get the maximum number of occurrences
-                    "     SELECT max(occurrences.count) " +
-                    "     FROM ( " +
-                    // Get the number of occurrences for each provider actively subscribed to
-                    "         SELECT count(s.provider) AS count " +
-                    "         FROM Subscription s " +
-                    "         WHERE s.isActive " +
-                    "         GROUP BY s.provider " +
-                    "         ) AS occurrences " +
-                    "     )"
+                    " WHERE s.isActive = true " +
+                    "     AND MOD(s.user.telegramId, :shardCount) IN :shards " +
+                    " GROUP BY s.provider"
     )
-    List<NewsProvider> findDistinctTopProviders();
+    List<ProviderCursor> findActiveProviderCursors(int shardCount, Collection<Integer> shards);
 
     /**
-     * Returns the most recent date and time when any subscription was read.
+     * Returns the number of active subscriptions of each news provider having at least one.
      *
-     * @return a ZonedDateTime object representing the most recent read time
+     * @return a list of provider counts
      */
     @Query(
-            value = "SELECT max(s.lastReadId) " +
-                    " FROM Subscription s "
+            value = "SELECT new com.uvarchev.javatelebot.dto.ProviderCount(s.provider, count(s)) " +
+                    " FROM Subscription s " +
+                    " WHERE s.isActive = true " +
+                    " GROUP BY s.provider"
     )
-    ZonedDateTime getMostRecentReadTime();
+    List<ProviderCount> countActiveByProvider();
 
     /**
-     * Returns the oldest date and time when any active subscription was read.
+     * Returns the most recent date and time when any subscription was read.
      *
-     * @return a ZonedDateTime object representing the oldest read time
+     * @return a ZonedDateTime object representing the most recent read time
      */
     @Query(
-            value = "SELECT min(s.lastReadId) " +
-                    " FROM Subscription s " +
-                    " WHERE s.isActive "
+            value = "SELECT max(s.lastReadId) " +
+                    " FROM Subscription s "
     )
-    ZonedDateTime getOldestReadTimeFromActiveSubscriptions();
+    ZonedDateTime getMostRecentReadTime();
 
 }
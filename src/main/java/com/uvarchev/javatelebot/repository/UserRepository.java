@@ -1,14 +1,18 @@
 package com.uvarchev.javatelebot.repository;
 
+import com.uvarchev.javatelebot.dto.UserProfile;
 import com.uvarchev.javatelebot.entity.User;
 import com.uvarchev.javatelebot.enums.UserRole;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface UserRepository extends CrudRepository<User, Long> {
@@ -26,11 +30,70 @@ public interface UserRepository extends CrudRepository<User, Long> {
     @Modifying
     @Query(
             value = "UPDATE User u " +
-                    " SET u.userRole = 'UNAUTHORISED' " +
+                    " SET u.userRole = 'UNAUTHORISED', " +
+                    "     u.activeProviderMask = 0 " +
                     " WHERE u.telegramId = :userId"
     )
     int deactivateUserByUserId(Long userId);
 
+    /**
+     * Returns the role and the bitmask of active providers of a user, reading a single row.
+     *
+     * @param userId the id of the user
+     * @return the profile of the user, or empty if the user doesn't exist or its bitmask is not migrated yet
+     */
+    @Query(
+            value = "SELECT new com.uvarchev.javatelebot.dto.UserProfile(u.userRole, u.activeProviderMask) " +
+                    " FROM User u " +
+                    " WHERE u.telegramId = :userId " +
+                    "     AND u.activeProviderMask IS NOT NULL"
+    )
+    Optional<UserProfile> findProfileById(Long userId);
+
+    /**
+     * Returns ids of users stored before the bitmask of active providers was introduced.
+     *
+     * @param pageable the page request limiting the number of ids returned
+     * @return a list of ids of users without the bitmask
+     */
+    @Query(
+            value = "SELECT u.telegramId " +
+                    " FROM User u " +
+                    " WHERE u.activeProviderMask IS NULL " +
+                    " ORDER BY u.telegramId"
+    )
+    List<Long> findIdsWithoutProviderMask(Pageable pageable);
+
+    /**
+     * Adds the same number of received articles to each user with the given ids in a single statement.
+     *
+     * @param increment the number of articles to add
+     * @param userIds   the ids of the users to update
+     * @return the number of updated users
+     */
+    @Transactional
+    @Modifying
+    @Query(
+            value = "UPDATE User u " +
+                    " SET u.articlesReceived = u.articlesReceived + :increment " +
+                    " WHERE u.telegramId IN :userIds"
+    )
+    int incrementArticlesReceived(long increment, Collection<Long> userIds);
+
+    /**
+     * Returns the users with the given ids together with all their subscriptions, loaded in a single query.
+     *
+     * @param userIds the ids of the users to find
+     * @return a list of found users, users that don't exist are omitted
+     */
+    @Query(
+            value = "SELECT DISTINCT u " +
+                    " FROM User u " +
+                    "     LEFT JOIN FETCH u.subscriptions " +
+                    " WHERE u.telegramId IN :userIds"
+    )
+    List<User> findAllWithSubscriptionsByIds(Collection<Long> userIds);
+
     /**
      * Returns the number of users in the database whose user role is not equal to the given user role.
      *
@@ -42,10 +105,10 @@ public interface UserRepository extends CrudRepository<User, Long> {
     /**
      * Returns the total number of articles received by all users.
      *
-     * @return a long value representing the sum of articles received
+     * @return a long value representing the sum of articles received, 0 if there are no users
      */
     @Query(
-            value = "SELECT sum(u.articlesReceived) " +
+            value = "SELECT coalesce(sum(u.articlesReceived), 0) " +
                     " FROM User u "
     )
     long getTotalOfArticlesReceived();
@@ -1,6 +1,7 @@
 package com.uvarchev.javatelebot.service;
 
 import com.uvarchev.javatelebot.command.*;
+import com.uvarchev.javatelebot.dto.UserProfile;
 import com.uvarchev.javatelebot.entity.User;
 import com.uvarchev.javatelebot.enums.CommandType;
 import com.uvarchev.javatelebot.enums.UserRole;
@@ -9,7 +10,8 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
@@ -23,6 +25,39 @@ public class CommandService {
     private UserService userService;
     @Autowired
     private SubscriptionService subscriptionService;
+    @Autowired
+    private UserPreloadCache userPreloadCache;
+    @Autowired
+    private UserProfileCache userProfileCache;
+    @Autowired
+    private ResponseCatalogue responseCatalogue;
+
+    /**
+     * Loads the users of a batch of updates, with their subscriptions, in a single query,
+     * so that the first command of each user doesn't need a lookup of its own.
+     * Users that don't exist are remembered as well.
+     *
+     * @param userIds the ids of the users who sent the updates
+     */
+    public void preloadUsers(Collection<Long> userIds) {
+        // Skip preloading if the batch doesn't fit into the cache
+        if (userIds.isEmpty() || !userPreloadCache.hasCapacity(userIds.size())) {
+            return;
+        }
+
+        // Read the generation of each user before loading it
+        Map<Long, Long> generations = userIds.stream()
+                .collect(Collectors.toMap(Function.identity(), userPreloadCache::getGeneration, (a, b) -> a));
+
+        // Load all users at once
+        Map<Long, User> users = userRepository.findAllWithSubscriptionsByIds(userIds).stream()
+                .collect(Collectors.toMap(User::getTelegramId, Function.identity()));
+
+        // Store found and missing users
+        generations.forEach((userId, generation) ->
+                userPreloadCache.put(userId, users.get(userId), generation)
+        );
+    }
 
     /**
      * Processes a start command and responds by activating a returning user or creating a new one.
@@ -47,11 +82,11 @@ public class CommandService {
      * @Usage: /stop
      */
     public String processAndRespond(StopCommand command) {
-        return processIfAuthorised(
+        return processIfAuthorisedByProfile(
                 command.getUserId(),
                 command.getUserName(),
                 command.getType(),
-                user -> userService.deactivateUser(command)
+                profile -> userService.deactivateUser(command)
         );
     }
 
@@ -99,11 +134,11 @@ public class CommandService {
      * @Usage: /subscriptions
      */
     public String processAndRespond(SubscriptionsCommand command) {
-        return processIfAuthorised(
+        return processIfAuthorisedByProfile(
                 command.getUserId(),
                 command.getUserName(),
                 command.getType(),
-                user -> subscriptionService.listSubscriptions(command, user)
+                profile -> subscriptionService.listActiveProviders(command, profile.getActiveProviderMask())
         );
     }
 
@@ -116,11 +151,11 @@ public class CommandService {
      * @Usage: /statistics
      */
     public String processAndRespond(StatisticsCommand command) {
-        return processIfAuthorised(
+        return processIfAuthorisedByProfile(
                 command.getUserId(),
                 command.getUserName(),
                 command.getType(),
-                user -> userService.getAdminStatistics()
+                profile -> userService.getAdminStatistics()
         );
     }
 
@@ -175,12 +210,65 @@ public class CommandService {
     }
 
     /**
-     * Finds a user by their id in the database.
+     * Processes a command that doesn't need the user entity if the user is authorised to execute it.
+     * The user's role is checked against the cached user profile.
+     *
+     * @param userId    the ID of the user who initiated the command
+     * @param userName  the name of the user who initiated the command
+     * @param command   the type of the command to be executed
+     * @param operation the function that performs the operation corresponding to the command
+     * @return the result of the operation as a string,
+     * or an error message if the user is not authorised or does not exist
+     */
+    private String processIfAuthorisedByProfile(
+            Long userId,
+            String userName,
+            CommandType command,
+            Function<UserProfile, String> operation
+    ) {
+        // Get the user's profile from cache or DB
+        UserProfile profile = getUserProfile(userId);
+
+        // Check if the user has access to the command type
+        if (hasAccess(profile.getUserRole(), command)) {
+            // Proceed performing requested operation
+            return operation.apply(profile);
+        } else {
+            // Reroute to the UnrecognisedCommand method
+            return processAndRespond(
+                    new UnrecognisedCommand(userName, userId)
+            );
+        }
+    }
+
+    /**
+     * Returns the cached profile of a user.
+     * On a miss, a single row of the user is read, without its subscriptions.
+     *
+     * @param userId the id of the user
+     * @return the profile of the user
+     */
+    private UserProfile getUserProfile(Long userId) {
+        return userProfileCache.get(userId, id -> userRepository.findProfileById(id)
+                // Fall back to the full user if it doesn't exist or is not migrated yet
+                .orElseGet(() -> UserProfile.of(findUserById(id)))
+        );
+    }
+
+    /**
+     * Finds a user by their id, using the user preloaded for the current batch of updates if available.
+     * Preloaded copies of the user are discarded once the command is committed, as it may change the user.
      *
      * @param userId the id of the user to find
      * @return the user object if found, or null otherwise
      */
     private User findUserById(Long userId) {
+        UserPreloadCache.Entry preloaded = userPreloadCache.take(userId);
+        userPreloadCache.invalidateAfterCommit(userId);
+        if (preloaded != null) {
+            return preloaded.getUser();
+        }
+
         return userRepository
                 .findById(userId)
                 .orElse(null);
@@ -194,15 +282,8 @@ public class CommandService {
      * @return the user role of the user with the given user ID, or UNAUTHORISED if not found
      */
     private UserRole getUserRoleByUserId(Long userId) {
-        // Try to get requested user from DB
-        User user = findUserById(userId);
-
-        // If no user was found - return UNAUTHORISED, or the found user's role otherwise
-        if (user == null) {
-            return UserRole.UNAUTHORISED;
-        } else {
-            return user.getUserRole();
-        }
+        // Missing users have an UNAUTHORISED profile
+        return getUserProfile(userId).getUserRole();
     }
 
     /**
@@ -213,10 +294,7 @@ public class CommandService {
      * @return a String with the available commands for the user role
      */
     private String getCommandsForUserRole(UserRole userRole) {
-        return "/" + Arrays.stream(CommandType.values())
-                .filter(commandType -> hasAccess(userRole, commandType))
-                .map(commandType -> commandType.name().toLowerCase())
-                .collect(Collectors.joining(", /"));
+        return responseCatalogue.getCommandsForUserRole(userRole);
     }
 
     /**
@@ -0,0 +1,117 @@
+package com.uvarchev.javatelebot.service;
+
+import com.uvarchev.javatelebot.dto.Reply;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+
+/**
+ * A component that merges pending news replies of each user into digests,
+ * so that a user receives as few messages as possible.
+ */
+@Component
+public class DigestComposer {
+
+    // Maximum length of a Telegram text message
+    public static final int MAX_MESSAGE_LENGTH = 4096;
+
+    // Separates articles within a digest
+    private static final String ARTICLE_SEPARATOR = "\n\n* * *\n\n";
+
+    private final boolean enabled;
+
+    public DigestComposer(@Value("${telebot.digest.enabled:false}") boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Merges replies addressed to the same user into digests, if the digest mode is enabled.
+     * Each digest stays within the Telegram message length limit and keeps track
+     * of the subscriptions and the number of articles it carries.
+     *
+     * @param replies a queue of single-article replies
+     * @return a queue of digests, or the given queue if the digest mode is disabled
+     */
+    public Queue<Reply> compose(Queue<Reply> replies) {
+        if (!enabled) {
+            return replies;
+        }
+
+        // Group replies by recipient, preserving their order
+        Map<Long, List<Reply>> repliesByUser = new LinkedHashMap<>();
+        for (Reply reply : replies) {
+            repliesByUser.computeIfAbsent(reply.getUserId(), id -> new ArrayList<>()).add(reply);
+        }
+
+        // Compose digests for each recipient
+        Queue<Reply> digests = new LinkedList<>();
+        repliesByUser.forEach((userId, userReplies) -> composeUserDigests(userId, userReplies, digests));
+        return digests;
+    }
+
+    /**
+     * Packs replies of a single user into as few digests as the message length limit allows.
+     *
+     * @param userId      the user id of the recipient
+     * @param userReplies the replies addressed to the user, in their original order
+     * @param digests     a queue of digests to add the composed digests to
+     */
+    private void composeUserDigests(Long userId, List<Reply> userReplies, Queue<Reply> digests) {
+        // A single reply doesn't need to be merged
+        if (userReplies.size() == 1) {
+            digests.offer(userReplies.get(0));
+            return;
+        }
+
+        StringBuilder body = new StringBuilder();
+        Set<Long> subscriptionIds = new LinkedHashSet<>();
+        List<Long> outboxIds = new ArrayList<>();
+        int articleCount = 0;
+
+        for (Reply reply : userReplies) {
+            // Start a new digest if the article doesn't fit into the current one
+            if (!body.isEmpty() &&
+                    body.length() + ARTICLE_SEPARATOR.length() + reply.getMessageBody().length() > MAX_MESSAGE_LENGTH) {
+                digests.offer(createDigest(userId, body, subscriptionIds, articleCount, outboxIds));
+                body.setLength(0);
+                subscriptionIds.clear();
+                outboxIds.clear();
+                articleCount = 0;
+            }
+
+            // Append the article to the current digest
+            if (!body.isEmpty()) {
+                body.append(ARTICLE_SEPARATOR);
+            }
+            body.append(reply.getMessageBody());
+            subscriptionIds.addAll(reply.getSubscriptionIds());
+            outboxIds.addAll(reply.getOutboxIds());
+            articleCount += reply.getArticleCount();
+        }
+
+        // Add the last digest
+        digests.offer(createDigest(userId, body, subscriptionIds, articleCount, outboxIds));
+    }
+
+    /**
+     * Creates a digest reply from the accumulated articles.
+     *
+     * @param userId          the user id of the recipient
+     * @param body            the merged message body
+     * @param subscriptionIds the ids of the subscriptions the articles were distributed for
+     * @param articleCount    the number of merged articles
+     * @param outboxIds       the ids of the merged outbox messages
+     * @return a digest reply
+     */
+    private Reply createDigest(
+            Long userId,
+            StringBuilder body,
+            Set<Long> subscriptionIds,
+            int articleCount,
+            List<Long> outboxIds
+    ) {
+        return new Reply(userId, body.toString(), new ArrayList<>(subscriptionIds), articleCount, outboxIds);
+    }
+
+}
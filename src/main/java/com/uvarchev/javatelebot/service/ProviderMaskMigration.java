@@ -0,0 +1,71 @@
+package com.uvarchev.javatelebot.service;
+
+import com.uvarchev.javatelebot.entity.User;
+import com.uvarchev.javatelebot.repository.UserRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * A service that fills in the bitmask of active providers of users stored before the bitmask was introduced.
+ * Users are migrated in batches at startup, each batch in its own transaction.
+ * The migration is idempotent, so it may run on several nodes at once.
+ */
+@Slf4j
+@Service
+public class ProviderMaskMigration {
+
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${telebot.users.migration-batch-size:500}")
+    private int batchSize;
+
+    /**
+     * Migrates all users without the bitmask.
+     *
+     * @return the number of migrated users
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public int migrate() {
+        int migrated = 0;
+        Integer batchCount;
+        do {
+            batchCount = transactionTemplate.execute(status -> migrateBatch());
+            migrated += batchCount == null ? 0 : batchCount;
+        } while (batchCount != null && batchCount > 0);
+
+        if (migrated > 0) {
+            log.info("Bitmask of active providers was filled in for " + migrated + " users");
+        }
+        return migrated;
+    }
+
+    /**
+     * Computes the bitmask of the next batch of users from their subscriptions.
+     *
+     * @return the number of migrated users, 0 if there are none left
+     */
+    private int migrateBatch() {
+        List<Long> userIds = userRepository.findIdsWithoutProviderMask(PageRequest.of(0, batchSize));
+        if (userIds.isEmpty()) {
+            return 0;
+        }
+
+        // Load the users with their subscriptions at once and let them compute the bitmask
+        List<User> users = userRepository.findAllWithSubscriptionsByIds(userIds);
+        users.forEach(User::getActiveProviderMask);
+        userRepository.saveAll(users);
+        return users.size();
+    }
+
+}
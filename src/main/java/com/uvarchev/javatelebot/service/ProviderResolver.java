@@ -0,0 +1,164 @@
+package com.uvarchev.javatelebot.service;
+
+import com.uvarchev.javatelebot.dto.ProviderSelection;
+import com.uvarchev.javatelebot.enums.NewsProvider;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+
+/**
+ * A component that resolves news providers named in the arguments of a command.
+ * Providers are matched case-insensitively by their name, their API name or a short alias,
+ * ignoring any characters other than letters and digits, so that "space_scout" and "SpacePolicyOnline.com" match.
+ * All accepted names are indexed once at startup and a message is resolved in a single pass over its characters.
+ * Nearest matches by edit distance are suggested for unrecognised options.
+ */
+@Component
+public class ProviderResolver {
+
+    // Special option selecting all providers
+    private static final String ALL_OPTION = "ALL";
+    // Largest edit distance of a suggested match
+    private static final int MAX_SUGGESTION_DISTANCE = 2;
+
+    private final Map<String, NewsProvider> providersByName = new LinkedHashMap<>();
+
+    public ProviderResolver() {
+        for (NewsProvider provider : NewsProvider.values()) {
+            providersByName.putIfAbsent(normalise(provider.name()), provider);
+            providersByName.putIfAbsent(normalise(provider.getApiName()), provider);
+            provider.getAliases().forEach(alias -> providersByName.putIfAbsent(normalise(alias), provider));
+        }
+    }
+
+    /**
+     * Resolves the providers named in a message. Words starting with "/" are skipped.
+     * If the option 'ALL' is present, all providers are selected and no option is reported as unrecognised.
+     *
+     * @param message the message text that contains the command and the options
+     * @return the requested providers and the unrecognised options
+     */
+    public ProviderSelection resolve(String message) {
+        Set<NewsProvider> providers = new LinkedHashSet<>();
+        Map<String, NewsProvider> unrecognisedOptions = new LinkedHashMap<>();
+        boolean allRequested = false;
+
+        StringBuilder option = new StringBuilder();
+        StringBuilder key = new StringBuilder();
+        int length = message.length();
+        for (int i = 0; i <= length; i++) {
+            char c = i < length ? message.charAt(i) : ' ';
+            if (!Character.isWhitespace(c)) {
+                // Collect the option as typed and its normalised lookup key at once
+                char upper = Character.toUpperCase(c);
+                option.append(upper);
+                if (Character.isLetterOrDigit(upper)) {
+                    key.append(upper);
+                }
+                continue;
+            }
+            if (option.length() == 0) {
+                continue;
+            }
+
+            // Look up the completed option, skipping the command itself
+            if (option.charAt(0) != '/') {
+                String optionKey = key.toString();
+                NewsProvider provider = providersByName.get(optionKey);
+                if (provider != null) {
+                    providers.add(provider);
+                } else if (optionKey.equals(ALL_OPTION)) {
+                    allRequested = true;
+                } else {
+                    unrecognisedOptions.putIfAbsent(option.toString(), null);
+                }
+            }
+            option.setLength(0);
+            key.setLength(0);
+        }
+
+        if (allRequested) {
+            return new ProviderSelection(new LinkedHashSet<>(Arrays.asList(NewsProvider.values())), Map.of());
+        }
+
+        // Suggest nearest matches only for the options that weren't recognised
+        unrecognisedOptions.replaceAll((unrecognised, ignored) -> suggest(normalise(unrecognised)));
+        return new ProviderSelection(providers, unrecognisedOptions);
+    }
+
+    /**
+     * Finds the provider with the accepted name nearest to an unrecognised option.
+     *
+     * @param key the normalised option
+     * @return the nearest provider, or null if no name is close enough
+     */
+    private NewsProvider suggest(String key) {
+        int maxDistance = Math.min(MAX_SUGGESTION_DISTANCE, key.length() / 2);
+        NewsProvider nearest = null;
+        int nearestDistance = maxDistance + 1;
+        for (Map.Entry<String, NewsProvider> entry : providersByName.entrySet()) {
+            int distance = editDistance(key, entry.getKey(), nearestDistance);
+            if (distance < nearestDistance) {
+                nearest = entry.getValue();
+                nearestDistance = distance;
+            }
+        }
+        return nearest;
+    }
+
+    /**
+     * Computes the Levenshtein distance between two strings, giving up once it reaches a limit.
+     *
+     * @param source the first string
+     * @param target the second string
+     * @param limit  the distance at which the computation stops
+     * @return the edit distance, or the limit if the distance is at least the limit
+     */
+    static int editDistance(String source, String target, int limit) {
+        if (Math.abs(source.length() - target.length()) >= limit) {
+            return limit;
+        }
+
+        // Two rows of the distance matrix are enough
+        int[] previous = new int[target.length() + 1];
+        int[] current = new int[target.length() + 1];
+        for (int j = 0; j <= target.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= source.length(); i++) {
+            current[0] = i;
+            int rowMinimum = current[0];
+            for (int j = 1; j <= target.length(); j++) {
+                int substitution = previous[j - 1] + (source.charAt(i - 1) == target.charAt(j - 1) ? 0 : 1);
+                current[j] = Math.min(substitution, Math.min(previous[j], current[j - 1]) + 1);
+                rowMinimum = Math.min(rowMinimum, current[j]);
+            }
+            // The distance can't decrease in later rows
+            if (rowMinimum >= limit) {
+                return limit;
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return Math.min(previous[target.length()], limit);
+    }
+
+    /**
+     * Converts a name to its lookup key: upper case letters and digits only.
+     *
+     * @param name the name of a provider or an option
+     * @return the lookup key
+     */
+    private static String normalise(String name) {
+        StringBuilder key = new StringBuilder(name.length());
+        for (int i = 0; i < name.length(); i++) {
+            char upper = Character.toUpperCase(name.charAt(i));
+            if (Character.isLetterOrDigit(upper)) {
+                key.append(upper);
+            }
+        }
+        return key.toString();
+    }
+
+}
@@ -0,0 +1,134 @@
+package com.uvarchev.javatelebot.service;
+
+import com.uvarchev.javatelebot.enums.CommandType;
+import com.uvarchev.javatelebot.enums.NewsProvider;
+import com.uvarchev.javatelebot.enums.UserRole;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A catalogue of reply texts that depend only on a user's set of active subscriptions or role.
+ * All texts are built once at startup, indexed by a bitmask of news providers (see {@link NewsProvider#getMask()})
+ * and by user role, so that replies are composed by lookups, with only the user's name spliced in.
+ */
+@Component
+public class ResponseCatalogue {
+
+    private static final NewsProvider[] PROVIDERS = NewsProvider.values();
+
+    private final String supportedOptions;
+    private final String[] userOptions;
+    private final String[] subscriptionsHeads; // texts of /subscriptions, before the user's name if it's needed
+    private final String[] subscriptionsTails; // texts of /subscriptions after the user's name, or null
+    private final Map<UserRole, String> commandsByRole = new EnumMap<>(UserRole.class);
+
+    public ResponseCatalogue() {
+        int combinations = 1 << PROVIDERS.length;
+        this.supportedOptions = "Supported options are: " + joinNames(allProvidersMask()) + ", or ALL.";
+        this.userOptions = new String[combinations];
+        this.subscriptionsHeads = new String[combinations];
+        this.subscriptionsTails = new String[combinations];
+
+        // Build texts of every combination of active subscriptions
+        for (int mask = 0; mask < combinations; mask++) {
+            userOptions[mask] = mask == 0 ? "" : "Available options are: " + joinNames(mask) + ", or ALL.";
+            String availableSubscriptions = composeAvailableSubscriptions(mask);
+            if (mask == 0) {
+                subscriptionsHeads[mask] = "Unfortunately, ";
+                subscriptionsTails[mask] = ", you currently don't have any active subscriptions.\n" +
+                        availableSubscriptions;
+            } else {
+                subscriptionsHeads[mask] = composeActiveSubscriptions(mask) + availableSubscriptions;
+            }
+        }
+
+        // Build the list of available commands of every role
+        for (UserRole userRole : UserRole.values()) {
+            List<String> commands = new ArrayList<>();
+            for (CommandType commandType : CommandType.values()) {
+                if (userRole.getAccessLevel() >= commandType.getRequiredAccessLevel()) {
+                    commands.add(commandType.name().toLowerCase());
+                }
+            }
+            commandsByRole.put(userRole, "/" + String.join(", /", commands));
+        }
+    }
+
+    /**
+     * Returns the list of all supported subscription options.
+     *
+     * @return the names of all news providers separated by commas, followed by ", or ALL."
+     */
+    public String getSupportedOptions() {
+        return supportedOptions;
+    }
+
+    /**
+     * Returns the list of options a user can unsubscribe from.
+     *
+     * @param providerMask the bitmask of the user's active subscriptions
+     * @return the names of the active providers followed by ", or ALL.", or an empty String if there are none
+     */
+    public String getUserOptions(int providerMask) {
+        return userOptions[providerMask];
+    }
+
+    /**
+     * Returns the reply to the /subscriptions command.
+     *
+     * @param providerMask the bitmask of the user's active subscriptions
+     * @param userName     the name of the user, used only if there are no active subscriptions
+     * @return the list of the user's active subscriptions and of the available ones
+     */
+    public String getSubscriptions(int providerMask, String userName) {
+        String tail = subscriptionsTails[providerMask];
+        return tail == null ? subscriptionsHeads[providerMask] : subscriptionsHeads[providerMask] + userName + tail;
+    }
+
+    /**
+     * Returns the commands available to a user role.
+     *
+     * @param userRole the user role
+     * @return the available commands in lowercase prefixed with "/" and separated by commas
+     */
+    public String getCommandsForUserRole(UserRole userRole) {
+        return commandsByRole.get(userRole);
+    }
+
+    private static String composeActiveSubscriptions(int mask) {
+        StringBuilder text = new StringBuilder("Your active subscriptions are:\n");
+        for (NewsProvider provider : PROVIDERS) {
+            if ((mask & provider.getMask()) != 0) {
+                text.append("- ").append(provider).append("\n");
+            }
+        }
+        return text.toString();
+    }
+
+    private static String composeAvailableSubscriptions(int mask) {
+        int availableMask = allProvidersMask() & ~mask;
+        if (availableMask == 0) {
+            return "\nYou have subscribed to all available providers.\n";
+        }
+        return "\nAvailable subscriptions for you:\n" + joinNames(availableMask) + ".";
+    }
+
+    private static String joinNames(int mask) {
+        List<String> names = new ArrayList<>();
+        for (NewsProvider provider : PROVIDERS) {
+            if ((mask & provider.getMask()) != 0) {
+                names.add(provider.name());
+            }
+        }
+        return String.join(", ", names);
+    }
+
+    private static int allProvidersMask() {
+        return (1 << PROVIDERS.length) - 1;
+    }
+
+}
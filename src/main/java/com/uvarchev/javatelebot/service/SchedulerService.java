@@ -1,22 +1,36 @@
 package com.uvarchev.javatelebot.service;
 
+import com.uvarchev.javatelebot.dto.DispatchResult;
+import com.uvarchev.javatelebot.dto.DistributionResult;
 import com.uvarchev.javatelebot.dto.News;
+import com.uvarchev.javatelebot.dto.ProviderCursor;
 import com.uvarchev.javatelebot.dto.Reply;
-import com.uvarchev.javatelebot.entity.Subscription;
+import com.uvarchev.javatelebot.dto.SubscriptionRow;
+import com.uvarchev.javatelebot.entity.OutboxBody;
+import com.uvarchev.javatelebot.entity.OutboxMessage;
 import com.uvarchev.javatelebot.entity.User;
 import com.uvarchev.javatelebot.enums.NewsProvider;
 import com.uvarchev.javatelebot.enums.UserRole;
-import com.uvarchev.javatelebot.network.ApiClient;
+import com.uvarchev.javatelebot.network.NewsFetcher;
+import com.uvarchev.javatelebot.repository.OutboxBodyRepository;
+import com.uvarchev.javatelebot.repository.OutboxRepository;
 import com.uvarchev.javatelebot.repository.SubscriptionRepository;
 import com.uvarchev.javatelebot.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Instant;
+import java.time.ZoneId;
 import java.time.ZonedDateTime;
-import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.function.IntConsumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * A service class that handles the scheduling and distribution of news updates to subscribers.
@@ -31,57 +45,307 @@ public class SchedulerService {
     private UserRepository userRepository;
     @Autowired
     private UserService userService;
+    @Autowired
+    private DigestComposer digestComposer;
+    @Autowired
+    private OutboxRepository outboxRepository;
+    @Autowired
+    private OutboxBodyRepository outboxBodyRepository;
+    @Autowired
+    private NewsFetcher newsFetcher;
+    @Autowired
+    private SeenArticleStore seenArticleStore;
+    @Autowired
+    private ShardLeaseService shardLeaseService;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private UserPreloadCache userPreloadCache;
+    @Autowired
+    private StatisticsRegistry statisticsRegistry;
+
+    @Value("${telebot.scheduler.page-size:1000}")
+    private int pageSize;
+    @Value("${telebot.scheduler.delivery-batch-size:500}")
+    private int deliveryBatchSize;
+    @Value("${telebot.scheduler.article-block-size:500}")
+    private int articleBlockSize;
+    @Value("${telebot.scheduler.bulk-update-chunk-size:1000}")
+    private int bulkUpdateChunkSize;
 
     /**
-     * Fetches the scheduled news updates for all active subscriptions and returns them as a queue of replies.
+     * Returns the cursor of each news provider having active subscriptions in the shards held by this node.
      *
-     * @return a queue of replies containing the news updates, or null if there are no active subscriptions
+     * @return a list of provider cursors, or an empty list if there are no active subscriptions
      */
-    public Queue<Reply> fetchScheduledNewsUpdate() {
-        // Collect list of all active subscriptions
-        List<Subscription> subscriptions = subscriptionRepository.findAllActiveSubscriptions();
+    public List<ProviderCursor> getActiveProviderCursors() {
+        Set<Integer> shards = shardLeaseService.getOwnedShards();
+        if (shards.isEmpty()) {
+            return List.of();
+        }
+        return subscriptionRepository.findActiveProviderCursors(shardLeaseService.getShardCount(), shards);
+    }
 
-        // Check if the list of subscriptions is empty
-        if (subscriptions.isEmpty()) {
-            // Return null to indicate that the list of subscriptions is empty
-            return null;
+    /**
+     * Fetches the news updates of the given providers for all their active subscriptions and stores them
+     * in the delivery outbox, one message per article and subscription referring to the article's body,
+     * which is stored once.
+     * Messages are committed block by block, so that they can be sent while later blocks are still
+     * being distributed. Each message advances its subscription's cursor only up to its own article's
+     * publish time, so articles that were not delivered, or not distributed because a provider failed
+     * midway, are left to the next run.
+     *
+     * @param cursors          the cursors of the providers to fetch
+     * @param onBlockCommitted notified with the number of messages of each committed block
+     * @return the number of enqueued messages and the latest publish time fetched from each provider
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public DistributionResult enqueueScheduledNewsUpdate(List<ProviderCursor> cursors, IntConsumer onBlockCommitted) {
+        // Count enqueued messages and keep track of fetched publish times
+        DistributionResult result = new DistributionResult();
+
+        // Stream news of each provider from its own cursor, in chronological order
+        try (Stream<News> articles = newsFetcher.fetchNews(cursors)) {
+            Iterator<News> articleIterator = articles.iterator();
+            News nextArticle = articleIterator.hasNext() ? articleIterator.next() : null;
+
+            // Distribute articles block by block, so that only one block is held in memory
+            while (nextArticle != null) {
+                List<News> block = new ArrayList<>(articleBlockSize);
+                do {
+                    block.add(nextArticle);
+                    nextArticle = articleIterator.hasNext() ? articleIterator.next() : null;
+                    // Keep articles published at the same time in one block
+                } while (nextArticle != null && (block.size() < articleBlockSize ||
+                        nextArticle.getPublishedAt().equals(block.get(block.size() - 1).getPublishedAt())));
+
+                // Commit the block on its own
+                Integer blockCount = transactionTemplate.execute(status -> enqueueArticleBlock(block));
+                result.registerEnqueued(blockCount);
+                onBlockCommitted.accept(blockCount);
+
+                // Record publish times as reported by the providers, including re-dated articles
+                block.forEach(article -> {
+                    NewsProvider provider = NewsProvider.fromApiName(article.getProvider());
+                    if (provider != null) {
+                        result.registerFetched(provider, article.getPublishedAt());
+                    }
+                });
+            }
         }
 
-        // Save current time
-        final ZonedDateTime currentTime = ZonedDateTime.now();
+        return result;
+    }
 
-        // Get the latest article delivered time among active subscriptions or current time
-        ZonedDateTime oldestRead = Optional.ofNullable(
-                        subscriptionRepository.getOldestReadTimeFromActiveSubscriptions()
-                )
-                .orElse(currentTime);
+    /**
+     * Distributes a block of articles to all active subscriptions and stores the replies in the outbox.
+     *
+     * @param block a block of articles in chronological order
+     * @return the number of enqueued messages
+     */
+    private int enqueueArticleBlock(List<News> block) {
+        // Render and store each article at most once per run, all its outbox messages refer to the same body
+        Map<News, OutboxBody> renderedArticles = new IdentityHashMap<>();
+
+        // Compare subscriptions against the time each article was first distributed with
+        long[] firstPublishedAtMillis = block.stream()
+                .mapToLong(this::getFirstPublishedAtMillis)
+                .toArray();
+
+        // Count enqueued messages
+        int[] enqueuedCount = {0};
+
+        // Stream active subscriptions page by page, so that only one page is held in memory
+        streamActiveSubscriptionPages().forEach(page -> {
+            // Index the page's subscriptions by provider
+            Map<NewsProvider, List<SubscriptionRow>> subscriptionIndex = indexSubscriptionsByProvider(page);
+
+            // Prepare each article for the corresponding subscribers of the page
+            List<OutboxMessage> messages = new ArrayList<>();
+            for (int i = 0; i < block.size(); i++) {
+                Queue<Reply> replies = new LinkedList<>();
+                distributeArticles(block.get(i), firstPublishedAtMillis[i], subscriptionIndex, renderedArticles, replies);
+                if (replies.isEmpty()) {
+                    continue;
+                }
+
+                // Each message advances its subscription's cursor to the time its article was selected by
+                Long bodyId = renderedArticles.get(block.get(i)).getId();
+                ZonedDateTime cursorTarget = Instant.ofEpochMilli(firstPublishedAtMillis[i]).atZone(ZoneId.systemDefault());
+                replies.forEach(reply -> messages.add(toOutboxMessage(reply, bodyId, cursorTarget)));
+            }
 
-        // From subscriptions collect all distinct news providers separated by commas
-        String newsProviders = getDistinctNewsProvidersFromActiveSubscriptions(subscriptions);
+            // Store the page's replies in the outbox
+            outboxRepository.saveAll(messages);
+            enqueuedCount[0] += messages.size();
+        });
 
-        // Create an API client
-        ApiClient client = new ApiClient(
-                newsProviders,
-                oldestRead.format(DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ssX"))
+        return enqueuedCount[0];
+    }
+
+    /**
+     * Looks up the publish time an article was first distributed with.
+     * An article re-dated upstream keeps its original time, so that subscriptions
+     * that have already received it are not selected again.
+     *
+     * @param article a news article
+     * @return the first known publish time of the article in epoch milliseconds
+     */
+    private long getFirstPublishedAtMillis(News article) {
+        NewsProvider provider = NewsProvider.fromApiName(article.getProvider());
+        if (provider == null) {
+            return article.getPublishedAt().toEpochMilli();
+        }
+        return seenArticleStore
+                .recordFirstPublishedAt(provider, article.getId(), article.getPublishedAt())
+                .toEpochMilli();
+    }
+
+    /**
+     * Checks if the outbox contains messages to users in the shards held by this node that were not
+     * delivered yet, for example because the previous run was interrupted or the shard was taken over.
+     *
+     * @return true if there are pending messages, false otherwise
+     */
+    public boolean hasPendingDeliveries() {
+        Set<Integer> shards = shardLeaseService.getOwnedShards();
+        if (shards.isEmpty()) {
+            return false;
+        }
+        return outboxRepository.countPending(shardLeaseService.getShardCount(), shards) > 0;
+    }
+
+    /**
+     * Loads the next batch of pending outbox messages to users in the shards held by this node,
+     * grouped by recipient.
+     *
+     * @return a list of pending messages, or an empty list if all messages were processed
+     */
+    public List<OutboxMessage> loadPendingDeliveries() {
+        Set<Integer> shards = shardLeaseService.getOwnedShards();
+        if (shards.isEmpty()) {
+            return List.of();
+        }
+        return outboxRepository.findPending(
+                shardLeaseService.getShardCount(),
+                shards,
+                PageRequest.of(0, deliveryBatchSize)
         );
+    }
+
+    /**
+     * Converts a batch of outbox messages to replies, merging them into digests if enabled.
+     *
+     * @param batch a batch of pending outbox messages
+     * @return a queue of replies ready to be sent
+     */
+    public Queue<Reply> composeReplies(List<OutboxMessage> batch) {
+        // Load each message body of the batch once
+        Set<Long> bodyIds = batch.stream()
+                .map(OutboxMessage::getBodyId)
+                .collect(Collectors.toSet());
+        Map<Long, String> bodies = new HashMap<>();
+        outboxBodyRepository.findAllById(bodyIds).forEach(body -> bodies.put(body.getId(), body.getBody()));
 
-        // Download news in reverse date order
-        Stack<News> newsList = client.getNews();
+        Queue<Reply> replies = batch.stream()
+                .map(message -> new Reply(
+                        message.getTelegramId(),
+                        bodies.get(message.getBodyId()),
+                        List.of(message.getSubscriptionId()),
+                        1,
+                        List.of(message.getId())
+                ))
+                .collect(Collectors.toCollection(LinkedList::new));
 
-        // Create a Queue of Reply objects for News distribution
-        Queue<Reply> replies = new LinkedList<>();
+        // Merge replies into per-user digests if enabled
+        return digestComposer.compose(replies);
+    }
+
+    /**
+     * Records the outcome of sending a batch of outbox messages.
+     * Delivered messages are marked, the articles received counts are updated, and the last read time
+     * of each subscription is advanced to the latest cursor target among its delivered messages,
+     * but never to or past the cursor target of its earliest undelivered message.
+     * Pending messages of recipients that failed to receive an update are dropped: they are not sent
+     * during the rest of the run, but keep holding back the cursors of their subscriptions until the run
+     * completes, so that their articles are fetched again during the next run even if later messages
+     * of the same subscriptions are delivered meanwhile.
+     *
+     * @param batch  the batch of outbox messages that was sent
+     * @param result the result of sending the batch
+     */
+    public void completeDeliveries(List<OutboxMessage> batch, DispatchResult result) {
+        // Mark delivered messages
+        if (!result.getDeliveredOutboxIds().isEmpty()) {
+            outboxRepository.markDelivered(result.getDeliveredOutboxIds());
+        }
 
-        // Process each article in the received newsList
-        while (!newsList.isEmpty()) {
-            // Prepare article for the corresponding subscriber
-            distributeArticles(newsList.pop(), subscriptions, replies);
+        // Drop pending messages of recipients that failed to receive an update
+        if (!result.getFailedAttempts().isEmpty()) {
+            outboxRepository.markDroppedByTelegramIds(result.getFailedAttempts());
         }
 
-        return replies;
+        // Find the earliest undelivered message of each subscription of the batch, dropped ones included
+        Set<Long> recipients = batch.stream()
+                .map(OutboxMessage::getTelegramId)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+        Map<Long, ZonedDateTime> earliestPending = new HashMap<>();
+        chunk(recipients).forEach(chunk ->
+                outboxRepository.findEarliestPendingByTelegramIds(chunk).forEach(cursor ->
+                        earliestPending.put(cursor.getSubscriptionId(), cursor.getEarliestPending())
+                )
+        );
+
+        // Find the cursor target of each subscription from its delivered messages preceding its undelivered ones
+        Map<ZonedDateTime, Set<Long>> subscriptionsByCursor = batch.stream()
+                .filter(message -> result.getDeliveredOutboxIds().contains(message.getId()))
+                .filter(message -> {
+                    ZonedDateTime pending = earliestPending.get(message.getSubscriptionId());
+                    return pending == null || message.getCursorTarget().isBefore(pending);
+                })
+                .collect(Collectors.toMap(
+                        OutboxMessage::getSubscriptionId,
+                        OutboxMessage::getCursorTarget,
+                        (first, second) -> first.isAfter(second) ? first : second
+                ))
+                .entrySet().stream()
+                .collect(Collectors.groupingBy(
+                        Map.Entry::getValue,
+                        Collectors.mapping(Map.Entry::getKey, Collectors.toCollection(LinkedHashSet::new))
+                ));
+
+        // Increment articles received count in the database for each user who received updates
+        incrementReplyCount(result.getArticlesReceivedCount());
+        // Update LastReadId of the subscriptions sharing each cursor target
+        subscriptionsByCursor.forEach((cursorTarget, subscriptionIds) ->
+                updateSubscriptionListLastReadTime(subscriptionIds, cursorTarget)
+        );
+        // Discard preloaded copies of the updated users
+        userPreloadCache.invalidateAfterCommit(List.copyOf(result.getArticlesReceivedCount().keySet()));
+        // Count the delivered articles in the statistics
+        batch.stream()
+                .filter(message -> result.getDeliveredOutboxIds().contains(message.getId()))
+                .map(OutboxMessage::getCursorTarget)
+                .max(Comparator.naturalOrder())
+                .ifPresent(updateTime -> statisticsRegistry.recordArticlesSent(
+                        result.getArticlesReceivedCount().values().stream().mapToLong(Long::longValue).sum(),
+                        updateTime
+                ));
+    }
+
+    /**
+     * Removes delivered and dropped messages from the outbox once a run has completed,
+     * together with message bodies no longer referred to by any message.
+     */
+    public void purgeCompletedMessages() {
+        outboxRepository.deleteCompleted();
+        outboxBodyRepository.deleteUnreferenced();
     }
 
     /**
      * A method that returns a queue of Reply objects with the daily statistics message for all admin users.
+     * The statistics registry only counts changes made on this node between reconciliations,
+     * so it is reconciled with the database first and the report covers all nodes.
      *
      * @return a queue of Reply objects or an empty queue if no admin users are found
      */
@@ -94,7 +358,8 @@ public class SchedulerService {
             return new LinkedList<>();
         }
 
-        // Get a statistics message
+        // Catch up with changes made on other nodes, then get a statistics message
+        statisticsRegistry.reconcile();
         String statisticsMessage = userService.getAdminStatistics();
 
         // Create a list of Replies from a list of admins and return
@@ -104,127 +369,217 @@ public class SchedulerService {
     }
 
     /**
-     * Gets the distinct news providers from a list of active subscriptions
-     * and returns them as a comma-separated string.
+     * Lazily streams pages of active subscription rows using keyset pagination.
+     * The next page is only queried once the previous one was consumed.
      *
-     * @param subscriptions a list of active subscriptions
-     * @return a string of distinct news providers
+     * @return a stream of non-empty pages of active subscription rows, ordered by subscription id
      */
-    private String getDistinctNewsProvidersFromActiveSubscriptions(List<Subscription> subscriptions) {
-        return subscriptions.stream()
-                .map(Subscription::getProvider)
-                .distinct()
-                .map(NewsProvider::getApiName)
-                .collect(Collectors.joining(", "));
+    private Stream<List<SubscriptionRow>> streamActiveSubscriptionPages() {
+        return Stream.iterate(
+                findActiveSubscriptionPage(0L),
+                page -> !page.isEmpty(),
+                page -> page.size() < pageSize
+                        ? List.of()
+                        : findActiveSubscriptionPage(page.get(page.size() - 1).getSubscriptionId())
+        );
     }
 
     /**
-     * Distributes an article to the relevant subscriptions and adds the replies to a queue.
+     * Reads a single page of active subscription rows in the shards held by this node
+     * following the given subscription id.
+     *
+     * @param lastId the id of the last subscription of the previous page
+     * @return a page of active subscription rows
+     */
+    private List<SubscriptionRow> findActiveSubscriptionPage(Long lastId) {
+        Set<Integer> shards = shardLeaseService.getOwnedShards();
+        if (shards.isEmpty()) {
+            return List.of();
+        }
+        return subscriptionRepository.findActiveSubscriptionRowsAfter(
+                lastId,
+                shardLeaseService.getShardCount(),
+                shards,
+                PageRequest.of(0, pageSize)
+        );
+    }
+
+    /**
+     * Groups active subscriptions by their news provider.
+     * Subscriptions of each provider are sorted by their last read time in ascending order.
      *
-     * @param article       a news article
      * @param subscriptions a list of active subscriptions
-     * @param replies       a queue of replies
-     */
-    private void distributeArticles(News article, List<Subscription> subscriptions, Queue<Reply> replies) {
-        // Filter article through each active subscription and offer Reply to the replies
-        subscriptions.stream()
-                .filter(subscription ->
-                        matchesProvider(subscription, article) &&
-                                isPublishedAfterRead(subscription, article)
-                )
-                .forEach(subscription -> createAndOfferReply(subscription, article, replies));
+     * @return a map of news providers and their subscriptions sorted by last read time
+     */
+    private Map<NewsProvider, List<SubscriptionRow>> indexSubscriptionsByProvider(List<SubscriptionRow> subscriptions) {
+        Map<NewsProvider, List<SubscriptionRow>> index = new EnumMap<>(NewsProvider.class);
+
+        // Put each subscription into its provider's bucket
+        for (SubscriptionRow subscription : subscriptions) {
+            index.computeIfAbsent(subscription.getProvider(), provider -> new ArrayList<>())
+                    .add(subscription);
+        }
+
+        // Sort each bucket by last read time, so that recipients of an article form a prefix
+        index.values().forEach(bucket ->
+                bucket.sort(Comparator.comparingLong(SubscriptionRow::getLastReadMillis))
+        );
+
+        return index;
     }
 
     /**
-     * Checks if a subscription matches the provider of an article.
+     * Distributes an article to the relevant subscriptions and adds the replies to a queue.
+     * Only subscriptions of the article's provider, which were last read before the article
+     * was published, receive the article.
      *
-     * @param subscription a subscription
-     * @param article      a news article
-     * @return true if the subscription and the article have the same provider, false otherwise
+     * @param article           a news article
+     * @param publishedAtMillis the first known publish time of the article in epoch milliseconds
+     * @param subscriptionIndex active subscriptions grouped by provider and sorted by last read time
+     * @param renderedArticles  a cache of message bodies rendered and stored during the current run
+     * @param replies           a queue of replies
      */
-    private boolean matchesProvider(Subscription subscription, News article) {
-        // Providers for both article and subscription are matching
-        return subscription.getProvider().getApiName()
-                .equals(article.getProvider());
+    private void distributeArticles(
+            News article,
+            long publishedAtMillis,
+            Map<NewsProvider, List<SubscriptionRow>> subscriptionIndex,
+            Map<News, OutboxBody> renderedArticles,
+            Queue<Reply> replies
+    ) {
+        // Get subscriptions of the article's provider
+        List<SubscriptionRow> bucket = subscriptionIndex.get(NewsProvider.fromApiName(article.getProvider()));
+        if (bucket == null) {
+            return;
+        }
+
+        // Find how many subscriptions were last read before the article was published
+        int recipientsCount = countReadBefore(bucket, publishedAtMillis);
+
+        // Nothing to render if there are no recipients
+        if (recipientsCount == 0) {
+            return;
+        }
+
+        // Get the article's message body, rendering and storing it on first use
+        String messageBody = renderedArticles
+                .computeIfAbsent(article, news -> outboxBodyRepository.save(new OutboxBody(news.toString())))
+                .getBody();
+
+        // Offer Reply for each of them
+        for (int i = 0; i < recipientsCount; i++) {
+            createAndOfferReply(bucket.get(i), messageBody, replies);
+        }
     }
 
     /**
-     * Checks if an article is published after the last read time of a subscription.
+     * Counts subscriptions that were last read before the given time using binary search.
      *
-     * @param subscription a subscription
-     * @param article      a news article
-     * @return true if the article is published after the last read time of the subscription, false otherwise
+     * @param bucket            subscriptions sorted by last read time in ascending order
+     * @param publishedAtMillis the time an article was published in epoch milliseconds
+     * @return the number of leading subscriptions whose last read time is before the given time
      */
-    private boolean isPublishedAfterRead(Subscription subscription, News article) {
-        // Articles published time is after subscription's last read time
-        ZonedDateTime publishedAt = ZonedDateTime.parse(article.getPublishedAt());
-        ZonedDateTime lastRead = subscription.getLastReadId();
-        return publishedAt.isAfter(lastRead);
+    private int countReadBefore(List<SubscriptionRow> bucket, long publishedAtMillis) {
+        int low = 0;
+        int high = bucket.size();
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (bucket.get(middle).getLastReadMillis() < publishedAtMillis) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
     }
 
     /**
-     * Creates a reply object based on a subscription and an article and adds it to a queue of replies.
+     * Creates a reply object based on a subscription and a rendered article and adds it to a queue of replies.
      *
-     * @param subscription a subscription
-     * @param article      a news article
+     * @param subscription a subscription row
+     * @param messageBody  a rendered news article
      * @param replies      a queue of replies
      */
-    private void createAndOfferReply(Subscription subscription, News article, Queue<Reply> replies) {
+    private void createAndOfferReply(SubscriptionRow subscription, String messageBody, Queue<Reply> replies) {
         // Create Reply abject based on Subscription and add to the queue of replies
         replies.offer(new Reply(
-                subscription.getUser().getTelegramId(),
-                article.toString(),
-                subscription.getId()
+                subscription.getTelegramId(),
+                messageBody,
+                subscription.getSubscriptionId()
         ));
     }
 
     /**
-     * Updates the last read time for each subscription stored in a list
-     * and saves the updated subscriptions to the database.
+     * Creates an outbox message from a single-article reply.
+     *
+     * @param reply        a reply with a single article
+     * @param bodyId       the id of the stored message body of the reply's article
+     * @param cursorTarget the publish time of the reply's article, the subscription's cursor advances to it
+     *                     once the message is delivered
+     * @return an outbox message that is not delivered yet
+     */
+    private OutboxMessage toOutboxMessage(Reply reply, Long bodyId, ZonedDateTime cursorTarget) {
+        return new OutboxMessage(
+                reply.getUserId(),
+                reply.getSubscriptionIds().get(0),
+                bodyId,
+                cursorTarget
+        );
+    }
+
+    /**
+     * Updates the last read time of the given subscriptions with set-based statements,
+     * one per chunk of ids.
      *
-     * @param ids         The list of subscription ids to be updated.
+     * @param ids         The set of subscription ids to be updated.
      * @param currentTime The current time of the scheduler.
      */
     public void updateSubscriptionListLastReadTime(
             Set<Long> ids,
             ZonedDateTime currentTime
     ) {
-        // Get a list of subscriptions from db
-        Iterable<Subscription> subscriptionList = subscriptionRepository.findAllById(ids);
-
-        // For each subscription in a subscription list
-        for (Subscription subscription : subscriptionList) {
-            // Update LastReadId
-            subscription.setLastReadId(currentTime);
-        }
-
-        // Save updated subscription list to db
-        subscriptionRepository.saveAll(subscriptionList);
+        // Update LastReadId chunk by chunk, keeping the IN lists bounded
+        chunk(ids).forEach(chunk ->
+                subscriptionRepository.updateLastReadIdByIds(chunk, currentTime)
+        );
     }
 
     /**
-     * A method that increments the number of articles received by each user in a map
-     * and saves the updated users to the database.
+     * Increments the number of articles received by each user in a map with set-based statements.
+     * Users are grouped by their increment, so that a single statement per distinct increment
+     * and chunk of ids updates all of them.
      *
      * @param articlesReceived a map that stores the user ids and the number of articles received
      */
     public void incrementReplyCount(Map<Long, Long> articlesReceived) {
-        // Get a list of user ids from Map
-        List<Long> ids = new LinkedList<>(articlesReceived.keySet());
-
-        // Get a list of users from db
-        Iterable<User> userList = userRepository.findAllById(ids);
-
-        // For each user in a user list
-        for (User user : userList) {
-            // Increment articles received
-            user.incrementArticlesReceivedByValue(
-                    articlesReceived.get(user.getTelegramId())
-            );
-        }
+        // Group user ids by the number of articles they received
+        Map<Long, List<Long>> usersByIncrement = articlesReceived.entrySet().stream()
+                .collect(Collectors.groupingBy(
+                        Map.Entry::getValue,
+                        TreeMap::new,
+                        Collectors.mapping(Map.Entry::getKey, Collectors.toList())
+                ));
+
+        // Increment articles received of each group chunk by chunk
+        usersByIncrement.forEach((increment, userIds) ->
+                chunk(userIds).forEach(chunk ->
+                        userRepository.incrementArticlesReceived(increment, chunk)
+                )
+        );
+    }
 
-        // Save updated user list to db
-        userRepository.saveAll(userList);
+    /**
+     * Splits ids into chunks of the configured bulk update size.
+     *
+     * @param ids a collection of ids
+     * @return a list of chunks in iteration order
+     */
+    private List<List<Long>> chunk(Collection<Long> ids) {
+        List<Long> idList = new ArrayList<>(ids);
+        List<List<Long>> chunks = new ArrayList<>();
+        for (int from = 0; from < idList.size(); from += bulkUpdateChunkSize) {
+            chunks.add(idList.subList(from, Math.min(from + bulkUpdateChunkSize, idList.size())));
+        }
+        return chunks;
     }
 
 }
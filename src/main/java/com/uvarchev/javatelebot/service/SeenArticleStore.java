@@ -0,0 +1,53 @@
+package com.uvarchev.javatelebot.service;
+
+import com.uvarchev.javatelebot.enums.NewsProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A compact in-memory store of recently distributed articles, keyed by provider and article id.
+ * It remembers the publish time each article was first distributed with, so that an article
+ * re-dated or edited upstream is not delivered again to subscribers who have already received it.
+ * The least recently seen articles are forgotten once the capacity is exceeded.
+ */
+@Component
+public class SeenArticleStore {
+
+    private final Map<Long, Instant> firstPublishedAt;
+
+    public SeenArticleStore(@Value("${telebot.dedup.capacity:10000}") int capacity) {
+        this.firstPublishedAt = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Instant> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    /**
+     * Returns the publish time an article was first seen with, recording the article if it is new.
+     *
+     * @param provider    the provider of the article
+     * @param articleId   the API id of the article
+     * @param publishedAt the current publish time of the article
+     * @return the publish time the article was first seen with, or the given time if it is new
+     */
+    public synchronized Instant recordFirstPublishedAt(NewsProvider provider, long articleId, Instant publishedAt) {
+        long key = toKey(provider, articleId);
+
+        // Keep the time of an article seen before, remember a new one
+        return firstPublishedAt.computeIfAbsent(key, ignored -> publishedAt);
+    }
+
+    /**
+     * Combines a provider and an article id into a single key.
+     */
+    private long toKey(NewsProvider provider, long articleId) {
+        return articleId * 31 + provider.ordinal();
+    }
+
+}
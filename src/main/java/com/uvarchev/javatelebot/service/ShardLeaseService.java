@@ -0,0 +1,200 @@
+package com.uvarchev.javatelebot.service;
+
+import com.uvarchev.javatelebot.entity.SchedulerNode;
+import com.uvarchev.javatelebot.entity.ShardLease;
+import com.uvarchev.javatelebot.repository.SchedulerNodeRepository;
+import com.uvarchev.javatelebot.repository.ShardLeaseRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import java.time.ZonedDateTime;
+import java.util.*;
+import java.util.stream.StreamSupport;
+
+/**
+ * A service that splits the subscriber space between scheduler nodes.
+ * Users are assigned to shards by their telegram id, and each node claims an equal share
+ * of the shards through lease rows in the database. Leases are renewed by heartbeats,
+ * and shards of a node that stopped sending heartbeats are taken over once their leases expire.
+ * Surplus shards are only handed over between news runs, so that a node never stops processing
+ * a shard while it may still be sending to its subscribers.
+ * Nodes' clocks are assumed to be roughly in sync.
+ */
+@Slf4j
+@Service
+public class ShardLeaseService {
+
+    @Autowired
+    private ShardLeaseRepository shardLeaseRepository;
+    @Autowired
+    private SchedulerNodeRepository schedulerNodeRepository;
+
+    @Getter
+    @Value("${telebot.shard.count:16}")
+    private int shardCount;
+    @Value("${telebot.shard.lease-seconds:30}")
+    private long leaseSeconds;
+
+    @Getter
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private volatile Set<Integer> ownedShards = Set.of();
+    private volatile ZonedDateTime ownedUntil;
+    // Whether a news run of this node is in progress
+    private boolean runInProgress;
+    // Shards to be handed over once the current run ends
+    private Set<Integer> surplusShards = Set.of();
+
+    /**
+     * Announces this node, renews its leases and rebalances shards towards an equal share per live node:
+     * surplus shards are released, or kept until the end of a run in progress,
+     * missing ones are claimed from free or expired leases.
+     */
+    public synchronized void heartbeat() {
+        ZonedDateTime now = ZonedDateTime.now();
+        ZonedDateTime expiresAt = now.plusSeconds(leaseSeconds);
+
+        // Announce this node and forget dead ones
+        schedulerNodeRepository.save(new SchedulerNode(nodeId, expiresAt));
+        schedulerNodeRepository.deleteExpired(now);
+
+        // Make sure every shard has a lease row
+        createMissingShards();
+
+        // Extend the leases held by this node
+        shardLeaseRepository.renew(nodeId, expiresAt);
+        List<Integer> owned = new ArrayList<>(shardLeaseRepository.findShardIdsByOwnerId(nodeId));
+
+        // Divide shards equally between live nodes
+        long liveNodes = Math.max(1, schedulerNodeRepository.countLive(now));
+        int fairShare = (int) ((shardCount + liveNodes - 1) / liveNodes);
+
+        if (owned.size() > fairShare) {
+            List<Integer> surplus = new ArrayList<>(owned.subList(fairShare, owned.size()));
+            if (runInProgress) {
+                // Keep renewing surplus shards until the run ends, their messages may be in flight
+                surplusShards = Set.copyOf(surplus);
+            } else {
+                // Hand over surplus shards to other nodes
+                shardLeaseRepository.release(nodeId, surplus);
+                owned.removeAll(surplus);
+                surplusShards = Set.of();
+            }
+        } else {
+            surplusShards = Set.of();
+            // Claim free or expired shards up to the fair share
+            for (Integer shardId : shardLeaseRepository.findClaimableShardIds(shardCount, now)) {
+                if (owned.size() >= fairShare) {
+                    break;
+                }
+                if (shardLeaseRepository.claim(shardId, nodeId, expiresAt, now) == 1) {
+                    owned.add(shardId);
+                }
+            }
+        }
+
+        // Publish the new assignment
+        Set<Integer> assignment = Set.copyOf(owned);
+        if (!assignment.equals(ownedShards)) {
+            log.info("Node " + nodeId + " holds shards " + owned);
+        }
+        ownedShards = assignment;
+        ownedUntil = expiresAt;
+    }
+
+    /**
+     * Marks the start of a news run, surplus shards are kept until it ends.
+     */
+    public synchronized void beginRun() {
+        runInProgress = true;
+    }
+
+    /**
+     * Marks the end of a news run and hands over the shards found surplus while it was in progress.
+     * Shards that fail to be released are handed over by the next heartbeat.
+     */
+    public synchronized void endRun() {
+        runInProgress = false;
+        if (surplusShards.isEmpty()) {
+            return;
+        }
+
+        try {
+            shardLeaseRepository.release(nodeId, surplusShards);
+            Set<Integer> assignment = new HashSet<>(ownedShards);
+            assignment.removeAll(surplusShards);
+            ownedShards = Set.copyOf(assignment);
+            log.info("Node " + nodeId + " holds shards " + assignment);
+        } catch (RuntimeException e) {
+            log.warn("Failed to release surplus shards of node " + nodeId + ". " + e.getMessage());
+        }
+        surplusShards = Set.of();
+    }
+
+    /**
+     * Returns the shards this node may process.
+     * Once the leases lapse without a successful heartbeat, no shards are returned.
+     *
+     * @return a set of shard ids, or an empty set if the node holds no valid leases
+     */
+    public Set<Integer> getOwnedShards() {
+        ZonedDateTime until = ownedUntil;
+        if (until == null || ZonedDateTime.now().isAfter(until)) {
+            return Set.of();
+        }
+        return ownedShards;
+    }
+
+    /**
+     * Checks if this node is responsible for cluster-wide tasks, i.e. holds the first shard.
+     *
+     * @return true if the node holds shard 0, false otherwise
+     */
+    public boolean isLeader() {
+        return getOwnedShards().contains(0);
+    }
+
+    /**
+     * Creates lease rows for shards that don't have one yet.
+     * A row created concurrently by another node is skipped.
+     */
+    private void createMissingShards() {
+        Set<Integer> existing = new HashSet<>();
+        StreamSupport.stream(shardLeaseRepository.findAll().spliterator(), false)
+                .map(ShardLease::getShardId)
+                .forEach(existing::add);
+
+        for (int shardId = 0; shardId < shardCount; shardId++) {
+            if (!existing.contains(shardId)) {
+                try {
+                    shardLeaseRepository.insertShard(shardId);
+                } catch (DataIntegrityViolationException e) {
+                    // Another node created it first
+                }
+            }
+        }
+    }
+
+    /**
+     * Releases all leases of this node on shutdown, so that other nodes take them over immediately.
+     */
+    @PreDestroy
+    public synchronized void releaseAll() {
+        try {
+            if (!ownedShards.isEmpty()) {
+                shardLeaseRepository.release(nodeId, ownedShards);
+            }
+            schedulerNodeRepository.deleteById(nodeId);
+        } catch (RuntimeException e) {
+            log.warn("Failed to release shards of node " + nodeId + ". " + e.getMessage());
+        }
+        ownedShards = Set.of();
+        ownedUntil = null;
+    }
+
+}
@@ -0,0 +1,229 @@
+package com.uvarchev.javatelebot.service;
+
+import com.uvarchev.javatelebot.dto.ProviderCount;
+import com.uvarchev.javatelebot.enums.NewsProvider;
+import com.uvarchev.javatelebot.enums.UserRole;
+import com.uvarchev.javatelebot.repository.SubscriptionRepository;
+import com.uvarchev.javatelebot.repository.UserRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * An in-memory registry of the figures shown in the statistic report.
+ * Counters are striped, so that concurrent commands and deliveries update them without contention,
+ * and the report is read without querying the database.
+ * Changes are applied once their transaction commits.
+ * The registry is rebuilt from the database at startup and reconciled periodically,
+ * which corrects drift caused by concurrent changes of the same user and by changes made on other nodes.
+ * Each node keeps its own registry: between reconciliations it only reflects the changes made on that node,
+ * so /statistics may lag behind the database by up to one reconciliation interval.
+ * The daily report reconciles the registry before it is composed.
+ */
+@Slf4j
+@Component
+public class StatisticsRegistry {
+
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private SubscriptionRepository subscriptionRepository;
+
+    private final LongAdder totalUsers = new LongAdder();
+    private final LongAdder activeUsers = new LongAdder();
+    private final LongAdder articlesSent = new LongAdder();
+    // Active subscriptions of each provider, indexed by ordinal
+    private final LongAdder[] activeSubscriptions = Arrays.stream(NewsProvider.values())
+            .map(provider -> new LongAdder())
+            .toArray(LongAdder[]::new);
+    // Epoch milliseconds of the most recent update sent, Long.MIN_VALUE if none is known
+    private final LongAccumulator lastUpdate = new LongAccumulator(Math::max, Long.MIN_VALUE);
+
+    /**
+     * Rebuilds all figures from the database, replacing the counted ones.
+     * Changes committed while the queries run may be counted twice or not at all until the next reconciliation.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void reconcile() {
+        // Read all figures first, so that the registry is left untouched if any query fails
+        long totalUsersCount = userRepository.count();
+        long activeUsersCount = userRepository.countByUserRoleIsNot(UserRole.UNAUTHORISED);
+        long articlesSentCount = userRepository.getTotalOfArticlesReceived();
+        List<ProviderCount> providerCounts = subscriptionRepository.countActiveByProvider();
+        ZonedDateTime lastUpdateTime = subscriptionRepository.getMostRecentReadTime();
+
+        // Replace the counted figures
+        reset(totalUsers, totalUsersCount);
+        reset(activeUsers, activeUsersCount);
+        reset(articlesSent, articlesSentCount);
+        Arrays.stream(activeSubscriptions).forEach(LongAdder::reset);
+        providerCounts.forEach(count -> activeSubscriptions[count.getProvider().ordinal()].add(count.getCount()));
+        lastUpdate.reset();
+        if (lastUpdateTime != null) {
+            lastUpdate.accumulate(lastUpdateTime.toInstant().toEpochMilli());
+        }
+
+        log.debug("Statistics were reconciled with the database");
+    }
+
+    /**
+     * Counts a newly registered user once the current transaction commits.
+     */
+    public void recordUserRegistered() {
+        runAfterCommit(() -> {
+            totalUsers.increment();
+            activeUsers.increment();
+        });
+    }
+
+    /**
+     * Counts a returning UNAUTHORISED user as active once the current transaction commits.
+     */
+    public void recordUserReactivated() {
+        runAfterCommit(activeUsers::increment);
+    }
+
+    /**
+     * Removes a deactivated user and its active subscriptions from the counts once the current transaction commits.
+     *
+     * @param wasActive          whether the user's role wasn't UNAUTHORISED before deactivation
+     * @param activeProviderMask the bitmask of providers the user was actively subscribed to
+     */
+    public void recordUserDeactivated(boolean wasActive, int activeProviderMask) {
+        runAfterCommit(() -> {
+            if (wasActive) {
+                activeUsers.decrement();
+            }
+            for (NewsProvider provider : NewsProvider.values()) {
+                if ((activeProviderMask & provider.getMask()) != 0) {
+                    activeSubscriptions[provider.ordinal()].decrement();
+                }
+            }
+        });
+    }
+
+    /**
+     * Counts a new or reactivated subscription once the current transaction commits.
+     *
+     * @param provider the provider subscribed to
+     */
+    public void recordSubscriptionActivated(NewsProvider provider) {
+        runAfterCommit(activeSubscriptions[provider.ordinal()]::increment);
+    }
+
+    /**
+     * Removes a deactivated subscription from the counts once the current transaction commits.
+     *
+     * @param provider the provider unsubscribed from
+     */
+    public void recordSubscriptionDeactivated(NewsProvider provider) {
+        runAfterCommit(activeSubscriptions[provider.ordinal()]::decrement);
+    }
+
+    /**
+     * Counts delivered articles and advances the most recent update time once the current transaction commits.
+     *
+     * @param articleCount the number of delivered articles
+     * @param updateTime   the most recent update time the delivered articles were sent up to
+     */
+    public void recordArticlesSent(long articleCount, ZonedDateTime updateTime) {
+        long updateMillis = updateTime.toInstant().toEpochMilli();
+        runAfterCommit(() -> {
+            articlesSent.add(articleCount);
+            lastUpdate.accumulate(updateMillis);
+        });
+    }
+
+    public long getTotalUsers() {
+        return totalUsers.sum();
+    }
+
+    public long getActiveUsers() {
+        return activeUsers.sum();
+    }
+
+    public long getArticlesSent() {
+        return articlesSent.sum();
+    }
+
+    /**
+     * Returns the total number of active subscriptions.
+     *
+     * @return the sum of active subscriptions of all providers
+     */
+    public long getActiveSubscriptions() {
+        return Arrays.stream(activeSubscriptions).mapToLong(LongAdder::sum).sum();
+    }
+
+    /**
+     * Returns the news providers that have the most active subscriptions.
+     *
+     * @return a list of top providers in declaration order, empty if there are no active subscriptions
+     */
+    public List<NewsProvider> getTopProviders() {
+        long[] counts = Arrays.stream(activeSubscriptions).mapToLong(LongAdder::sum).toArray();
+        long max = Arrays.stream(counts).max().orElse(0);
+        if (max <= 0) {
+            return List.of();
+        }
+        return Arrays.stream(NewsProvider.values())
+                .filter(provider -> counts[provider.ordinal()] == max)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Returns the most recent update time of any subscription.
+     *
+     * @return the time in UTC, or null if no subscriptions were ever stored
+     */
+    public ZonedDateTime getLastUpdateTime() {
+        long millis = lastUpdate.get();
+        if (millis == Long.MIN_VALUE) {
+            return null;
+        }
+        return Instant.ofEpochMilli(millis).atZone(ZoneId.of("UTC"));
+    }
+
+    /**
+     * Replaces the value of a counter.
+     *
+     * @param adder the counter
+     * @param value the new value
+     */
+    private static void reset(LongAdder adder, long value) {
+        adder.reset();
+        adder.add(value);
+    }
+
+    /**
+     * Runs an action once the current transaction commits, or immediately if no transaction is active.
+     *
+     * @param action the change of the counters
+     */
+    private void runAfterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+}
@@ -3,27 +3,32 @@ package com.uvarchev.javatelebot.service;
 import com.uvarchev.javatelebot.command.SubscribeCommand;
 import com.uvarchev.javatelebot.command.SubscriptionsCommand;
 import com.uvarchev.javatelebot.command.UnsubscribeCommand;
+import com.uvarchev.javatelebot.dto.ProviderSelection;
 import com.uvarchev.javatelebot.entity.Subscription;
 import com.uvarchev.javatelebot.entity.User;
 import com.uvarchev.javatelebot.enums.CommandType;
 import com.uvarchev.javatelebot.enums.NewsProvider;
-import com.uvarchev.javatelebot.repository.SubscriptionRepository;
 import com.uvarchev.javatelebot.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
-import java.util.Arrays;
-import java.util.LinkedHashSet;
+import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
 public class SubscriptionService {
 
-    @Autowired
-    private SubscriptionRepository subscriptionRepository;
     @Autowired
     private UserRepository userRepository;
+    @Autowired
+    private UserProfileCache userProfileCache;
+    @Autowired
+    private ResponseCatalogue responseCatalogue;
+    @Autowired
+    private StatisticsRegistry statisticsRegistry;
+    @Autowired
+    private ProviderResolver providerResolver;
 
     /**
      * Adds a subscription for the user to one or more news providers.
@@ -50,7 +55,7 @@ public class SubscriptionService {
      */
     public String deactivateSubscription(UnsubscribeCommand command, User user) {
         // Check if user has any active subscriptions
-        if (user.getAllActiveSubscriptions().isEmpty()) {
+        if (user.getActiveProviderMask() == 0) {
             // If nothing found - reply with a corresponding message and exit
             return "Unfortunately, " + command.getUserName() +
                     ", you currently don't have any active subscriptions";
@@ -68,44 +73,18 @@ public class SubscriptionService {
      * @return a string that lists all the user's active subscriptions and available ones
      */
     public String listSubscriptions(SubscriptionsCommand command, User user) {
-        Set<Subscription> userSubscriptions = user.getAllActiveSubscriptions();
-        StringBuilder response = new StringBuilder();
-
-        if (userSubscriptions.isEmpty()) {
-            response.append("Unfortunately, ")
-                    .append(command.getUserName())
-                    .append(", you currently don't have any active subscriptions.\n");
-        } else {
-            response.append("Your active subscriptions are:\n");
-            userSubscriptions.forEach(
-                    s -> response.append("- ")
-                            .append(s.getProvider().toString())
-                            .append("\n")
-            );
-        }
-
-        // Get all available providers
-        Set<NewsProvider> availableProviders = Arrays.stream(NewsProvider.values())
-                .collect(Collectors.toCollection(
-                        LinkedHashSet::new
-                ));
-
-        // Remove user's subscriptions from the availableProviders
-        userSubscriptions.forEach(
-                s -> availableProviders.remove(s.getProvider())
-        );
-
-        if (!availableProviders.isEmpty()) {
-            response.append("\nAvailable subscriptions for you:\n")
-                    .append(availableProviders.stream()
-                            .map(Enum::name)
-                            .collect(Collectors.joining(", "))
-                    ).append(".");
-        } else {
-            response.append("\nYou have subscribed to all available providers.\n");
-        }
+        return listActiveProviders(command, user.getActiveProviderMask());
+    }
 
-        return response.toString();
+    /**
+     * Lists the given active subscriptions of the user and also shows available subscriptions.
+     *
+     * @param command            the command issued by the user
+     * @param activeProviderMask the bitmask of providers the user is actively subscribed to
+     * @return a string that lists all the user's active subscriptions and available ones
+     */
+    public String listActiveProviders(SubscriptionsCommand command, int activeProviderMask) {
+        return responseCatalogue.getSubscriptions(activeProviderMask, command.getUserName());
     }
 
     /**
@@ -124,11 +103,9 @@ public class SubscriptionService {
             String msgText,
             String userName
     ) {
-        // Get all command line arguments
-        String[] commandLineArgs = extractCommandLineArgs(msgText);
-
-        // Save valid requested providers
-        Set<NewsProvider> providers = extractProvidersFromRequest(commandLineArgs);
+        // Resolve the requested providers from the command line arguments
+        ProviderSelection selection = providerResolver.resolve(msgText);
+        Set<NewsProvider> providers = selection.getProviders();
 
         // If no valid options were provided - prepare help message and exit
         if (providers.isEmpty()) {
@@ -139,8 +116,8 @@ public class SubscriptionService {
         StringBuilder response = new StringBuilder();
         StringBuilder helpMessage = new StringBuilder();
 
-        // If some options were not recognised, save a help message to class variable
-        checkAllOptions(commandLineArgs, helpMessage);
+        // If some options were not recognised, add a help message
+        checkAllOptions(selection.getUnrecognisedOptions(), helpMessage);
 
         // Add/remove requested subscriptions
         boolean isSubscribeCommand = commandType.equals(CommandType.SUBSCRIBE);
@@ -159,6 +136,9 @@ public class SubscriptionService {
             );
         }
 
+        // Update the user's cached profile
+        userProfileCache.putAfterCommit(user);
+
         // Join response and help messages and then exit
         return response + "\n" + helpMessage;
     }
@@ -175,22 +155,24 @@ public class SubscriptionService {
             NewsProvider provider
     ) {
         // Check if such subscription for the user already exists
-        Subscription userSubscription = user.getEqualSubscription(new Subscription(user, provider));
+        Subscription userSubscription = user.getSubscription(provider);
         if (userSubscription != null) {
             // If found - check if it's currently active
             if (userSubscription.isActive()) {
                 // Add response that this subscription is already active
                 return provider + " is already subscribed to\n";
             } else {
-                // Reactivate old subscription, save to repository and add corresponding response
-                userSubscription.setActive(true);
-                subscriptionRepository.save(userSubscription);
+                // Reactivate old subscription, save user with its subscriptions and add corresponding response
+                user.setSubscriptionActive(userSubscription, true);
+                userRepository.save(user);
+                statisticsRegistry.recordSubscriptionActivated(provider);
                 return provider + " is reactivated\n";
             }
         } else {
             // If subscription is unique - assign it for the user, save, and add corresponding response
             user.addSubscription(new Subscription(user, provider));
             userRepository.save(user);
+            statisticsRegistry.recordSubscriptionActivated(provider);
             return provider + " is added to your subscriptions\n";
         }
     }
@@ -207,11 +189,12 @@ public class SubscriptionService {
             NewsProvider provider
     ) {
         // Check if such subscription for the user exists and is active
-        Subscription userSubscription = user.getEqualActiveSubscription(new Subscription(user, provider));
+        Subscription userSubscription = user.getActiveSubscription(provider);
         if (userSubscription != null) {
-            // If found - deactivate it, save, and add response
-            userSubscription.setActive(false);
-            subscriptionRepository.save(userSubscription);
+            // If found - deactivate it, save user with its subscriptions, and add response
+            user.setSubscriptionActive(userSubscription, false);
+            userRepository.save(user);
+            statisticsRegistry.recordSubscriptionDeactivated(provider);
             return provider + " is deactivated\n";
         } else {
             // Add response that this provider is not yet subscribed to
@@ -220,72 +203,30 @@ public class SubscriptionService {
     }
 
     /**
-     * Extracts a set of news providers from the command line arguments.
-     *
-     * @param commandLineArgs the array of strings that represent the command options
-     * @return a set of news providers that are valid and recognised,
-     * or all providers if the option 'ALL' is present
-     */
-    private Set<NewsProvider> extractProvidersFromRequest(String[] commandLineArgs) {
-        // If special option 'ALL' received - extract All providers
-        if (Arrays.asList(commandLineArgs).contains("ALL")) {
-            // Return all providers
-            return Arrays.stream(NewsProvider.values())
-                    .collect(Collectors.toCollection(
-                            LinkedHashSet::new
-                    ));
-        } else {
-            // Return recognised options
-            return Arrays.stream(commandLineArgs)
-                    .filter(arg -> !arg.startsWith("/") && isValidOption(arg))
-                    .map(NewsProvider::valueOf)
-                    .collect(Collectors.toCollection(
-                            LinkedHashSet::new
-                    ));
-        }
-    }
-
-    /**
-     * Checks if the given option is a valid news provider by trying to convert it to an enum value.
+     * Checks if all the options in the command line arguments were recognised.
+     * If not, it generates a help message with the unrecognised options and their nearest matches
+     * and appends it to the helpMessage.
      *
-     * @param option the string that represents the option
-     * @return true if the option is a valid news provider, false otherwise
+     * @param unrecognisedOptions each unrecognised option and its nearest match, or null if there is none
+     * @param helpMessage         the string builder that contains the help message to be modified
      */
-    private boolean isValidOption(String option) {
-        try {
-            NewsProvider.valueOf(option);
-            return true;
-        } catch (IllegalArgumentException ignored) {
-            return false;
-        }
-    }
-
-    /**
-     * Checks if all the options in the command line arguments are valid and recognised.
-     * If not, it generates a help message with the unrecognised options and appends
-     * it to the helpMessage.
-     *
-     * @param commandLineArgs the array of strings that represent the command options
-     * @param helpMessage     the string builder that contains the help message to be modified
-     */
-    private void checkAllOptions(String[] commandLineArgs, StringBuilder helpMessage) {
-        // If special option "ALL" received - exit
-        if (Arrays.asList(commandLineArgs).contains("ALL")) {
+    private void checkAllOptions(Map<String, NewsProvider> unrecognisedOptions, StringBuilder helpMessage) {
+        // If all options were recognised - exit
+        if (unrecognisedOptions.isEmpty()) {
             return;
         }
 
-        // Collect unrecognised options
-        String unrecognisedOptions = Arrays.stream(commandLineArgs)
-                .filter(arg -> !arg.startsWith("/") && !isValidOption(arg))
+        // Collect unrecognised options with their suggestions
+        String options = unrecognisedOptions.entrySet().stream()
+                .map(option -> option.getValue() == null
+                        ? option.getKey()
+                        : option.getKey() + " (did you mean " + option.getValue() + "?)")
                 .collect(Collectors.joining(", "));
 
-        // If unrecognisedOptions aren't empty,
-        if (!unrecognisedOptions.isEmpty()) {
-            // Generate a help message and save it to class variable
-            helpMessage.append(
-                    unrecognisedOptionsHelpMessage(unrecognisedOptions)
-            );
-        }
+        // Generate a help message
+        helpMessage.append(
+                unrecognisedOptionsHelpMessage(options)
+        );
     }
 
     /**
@@ -343,10 +284,7 @@ public class SubscriptionService {
      * separated by commas, and followed by ", or ALL."
      */
     private String loadAllAvailableProviders() {
-        return "Supported options are: " +
-                Arrays.stream(NewsProvider.values())
-                        .map(Enum::name)
-                        .collect(Collectors.joining(", ")) + ", or ALL.";
+        return responseCatalogue.getSupportedOptions();
     }
 
     /**
@@ -358,31 +296,7 @@ public class SubscriptionService {
      * @return a String with the available user options, or an empty String if none
      */
     private String loadAvailableUserOptions(User user) {
-        // Generate String with all active user subscriptions
-        String availableOptions = user.getAllActiveSubscriptions().stream()
-                .map(Subscription::getProvider)
-                .map(Enum::name)
-                .collect(Collectors.joining(", "));
-
-        // Check if there are any active subscriptions present
-        if (availableOptions.isEmpty()) {
-            // If there are no active subscriptions - exit without a message
-            return "";
-        } else {
-            // If active subscriptions present - generate a list with a special option 'ALL'
-            return "Available options are: " + availableOptions + ", or ALL.";
-        }
-    }
-
-    /**
-     * Extracts an array of command line arguments from a message string.
-     *
-     * @param message the message string that contains the command and the options
-     * @return an array of strings that represent the command and the options in upper case
-     */
-    private String[] extractCommandLineArgs(String message) {
-        // Split String at any of the whitespace characters
-        return message.toUpperCase().split("\\s+");
+        return responseCatalogue.getUserOptions(user.getActiveProviderMask());
     }
 
 }
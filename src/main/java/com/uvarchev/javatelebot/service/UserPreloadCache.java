@@ -0,0 +1,147 @@
+package com.uvarchev.javatelebot.service;
+
+import com.uvarchev.javatelebot.entity.User;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A component that holds users loaded ahead for a batch of incoming updates.
+ * Each preloaded user is handed out once, to the first command of that user, and later lookups
+ * go to the database.
+ * A preloaded user is discarded if any change of that user was committed after it was loaded,
+ * which is tracked with per-user generation counters, striped by user id.
+ * Users whose commands didn't need them are dropped once the cache is full.
+ */
+@Component
+public class UserPreloadCache {
+
+    private static final int GENERATION_STRIPES = 1024;
+
+    private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicLongArray generations = new AtomicLongArray(GENERATION_STRIPES);
+    private final int capacity;
+
+    public UserPreloadCache(@Value("${telebot.updates.preload-capacity:10000}") int capacity) {
+        this.capacity = capacity;
+    }
+
+    /**
+     * Checks if a batch of users fits into the cache.
+     *
+     * @param count the number of users to be preloaded
+     * @return true if the cache is large enough for the given number of users
+     */
+    public boolean hasCapacity(int count) {
+        return count <= capacity;
+    }
+
+    /**
+     * Returns the current generation of a user, to be read before the user is loaded.
+     *
+     * @param userId the id of the user
+     * @return the generation of the user
+     */
+    public long getGeneration(Long userId) {
+        return generations.get(stripe(userId));
+    }
+
+    /**
+     * Stores a preloaded user, unless the user has changed since its generation was read.
+     *
+     * @param userId     the id of the user
+     * @param user       the loaded user, or null if the user doesn't exist
+     * @param generation the generation of the user read before it was loaded
+     */
+    public void put(Long userId, User user, long generation) {
+        if (getGeneration(userId) != generation) {
+            return;
+        }
+        // Drop leftovers of earlier batches once the cache is full
+        if (entries.size() >= capacity) {
+            entries.clear();
+        }
+        entries.put(userId, new Entry(user, generation));
+    }
+
+    /**
+     * Removes and returns a preloaded user, if it is still up to date.
+     *
+     * @param userId the id of the user
+     * @return the preloaded entry, or null if the user has to be looked up in the database
+     */
+    public Entry take(Long userId) {
+        Entry entry = entries.remove(userId);
+        if (entry == null || entry.getGeneration() != getGeneration(userId)) {
+            return null;
+        }
+        return entry;
+    }
+
+    /**
+     * Discards preloaded copies of the users once the current transaction commits,
+     * or immediately if no transaction is active.
+     *
+     * @param userIds the ids of the changed users
+     */
+    public void invalidateAfterCommit(Collection<Long> userIds) {
+        if (userIds.isEmpty()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            invalidate(userIds);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                invalidate(userIds);
+            }
+        });
+    }
+
+    /**
+     * Discards a preloaded copy of the user once the current transaction commits.
+     *
+     * @param userId the id of the changed user
+     */
+    public void invalidateAfterCommit(Long userId) {
+        invalidateAfterCommit(List.of(userId));
+    }
+
+    /**
+     * Discards preloaded copies of the users immediately.
+     *
+     * @param userIds the ids of the changed users
+     */
+    private void invalidate(Collection<Long> userIds) {
+        userIds.forEach(userId -> {
+            generations.incrementAndGet(stripe(userId));
+            entries.remove(userId);
+        });
+    }
+
+    private static int stripe(Long userId) {
+        return Math.floorMod(Long.hashCode(userId), GENERATION_STRIPES);
+    }
+
+    /**
+     * A preloaded user together with the generation it was loaded at.
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class Entry {
+        private final User user; // null if the user doesn't exist
+        private final long generation;
+    }
+
+}
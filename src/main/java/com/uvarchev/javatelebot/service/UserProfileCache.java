@@ -0,0 +1,101 @@
+package com.uvarchev.javatelebot.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.uvarchev.javatelebot.dto.UserProfile;
+import com.uvarchev.javatelebot.entity.User;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * A bounded in-process cache of users' roles and active subscriptions on the command path.
+ * Entries expire after a fixed time and the least recently used ones are evicted once the cache is full.
+ * Changes made by commands are written through once their transaction commits.
+ * Hit and miss counts are published as "cache.gets" metrics tagged with cache=telebot.users.
+ */
+@Component
+public class UserProfileCache {
+
+    private final Cache<Long, UserProfile> profiles;
+
+    public UserProfileCache(
+            MeterRegistry meterRegistry,
+            @Value("${telebot.users.cache-size:10000}") long maximumSize,
+            @Value("${telebot.users.cache-ttl-seconds:300}") long ttlSeconds
+    ) {
+        this.profiles = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, profiles, "telebot.users");
+    }
+
+    /**
+     * Returns the profile of a user, loading it on a miss.
+     *
+     * @param userId the id of the user
+     * @param loader loads the profile from the database, returns {@link UserProfile#UNREGISTERED}
+     *               if the user doesn't exist
+     * @return the profile of the user
+     */
+    public UserProfile get(Long userId, Function<Long, UserProfile> loader) {
+        return profiles.get(userId, loader);
+    }
+
+    /**
+     * Stores the current state of a changed user once the current transaction commits,
+     * or immediately if no transaction is active. The entry is removed if the transaction rolls back.
+     *
+     * @param user the changed user
+     */
+    public void putAfterCommit(User user) {
+        Long userId = user.getTelegramId();
+        UserProfile profile = UserProfile.of(user);
+        runAfterCompletion(committed -> {
+            if (committed) {
+                profiles.put(userId, profile);
+            } else {
+                profiles.invalidate(userId);
+            }
+        });
+    }
+
+    /**
+     * Removes a user's profile now and once the current transaction completes,
+     * so that it is loaded from the database on the next command.
+     *
+     * @param userId the id of the changed user
+     */
+    public void invalidateAfterCommit(Long userId) {
+        profiles.invalidate(userId);
+        runAfterCompletion(committed -> profiles.invalidate(userId));
+    }
+
+    /**
+     * Runs an action once the current transaction completes, or immediately if no transaction is active.
+     *
+     * @param action accepts whether the transaction was committed
+     */
+    private void runAfterCompletion(Consumer<Boolean> action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.accept(true);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                action.accept(status == STATUS_COMMITTED);
+            }
+        });
+    }
+
+}
@@ -3,6 +3,7 @@ package com.uvarchev.javatelebot.service;
 import com.uvarchev.javatelebot.command.StartCommand;
 import com.uvarchev.javatelebot.command.StopCommand;
 import com.uvarchev.javatelebot.command.SubscriptionsCommand;
+import com.uvarchev.javatelebot.dto.UserProfile;
 import com.uvarchev.javatelebot.entity.User;
 import com.uvarchev.javatelebot.enums.NewsProvider;
 import com.uvarchev.javatelebot.enums.UserRole;
@@ -10,8 +11,10 @@ import com.uvarchev.javatelebot.repository.SubscriptionRepository;
 import com.uvarchev.javatelebot.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.ZoneId;
+import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.stream.Collectors;
 
@@ -24,6 +27,12 @@ public class UserService {
     private SubscriptionRepository subscriptionRepository;
     @Autowired
     private SubscriptionService subscriptionService;
+    @Autowired
+    private UserPreloadCache userPreloadCache;
+    @Autowired
+    private UserProfileCache userProfileCache;
+    @Autowired
+    private StatisticsRegistry statisticsRegistry;
 
     /**
      * Activates a user by checking if they already exist in the database or creating a new one if not.
@@ -43,11 +52,13 @@ public class UserService {
             // If found - set UserRole to USER if it was UNAUTHORISED and complete the reply
             if (user.getUserRole().equals(UserRole.UNAUTHORISED)) {
                 user.setUserRole(UserRole.USER);
+                statisticsRegistry.recordUserReactivated();
             }
             reply += ", nice to see you again!";
         } else {
             // Otherwise - create a new user and complete the reply
             user = new User(command.getUserId());
+            statisticsRegistry.recordUserRegistered();
             reply += ", nice to meet you!";
         }
 
@@ -57,8 +68,9 @@ public class UserService {
                 user
         );
 
-        // Save user and return reply
+        // Save user, update its cached profile and return reply
         userRepository.save(user);
+        userProfileCache.putAfterCommit(user);
         return reply;
     }
 
@@ -78,6 +90,7 @@ public class UserService {
 
     /**
      * Returns a string containing a statistic report of the users and subscriptions.
+     * The figures are read from the statistics registry of this node, without querying the database.
      *
      * @return a string containing the statistic report
      */
@@ -86,10 +99,10 @@ public class UserService {
         long totalUsersCount = countTotalUsers();
 
         // Count total active users
-        int activeUsersCount = countActiveUsers();
+        long activeUsersCount = countActiveUsers();
 
         // Count total active subscriptions
-        int activeSubscriptionsCount = countActiveSubscriptions();
+        long activeSubscriptionsCount = countActiveSubscriptions();
 
         // Number of articles sent to all users
         long articlesSentCount = countArticlesSent();
@@ -113,42 +126,58 @@ public class UserService {
 
     /**
      * A method that deactivates a user and all its subscriptions by the user id.
+     * The user and its subscriptions are deactivated in a single transaction,
+     * so that the statistics only change if both updates are committed.
      *
      * @param userId the user id of the user to be deactivated
      */
+    @Transactional
     public void deactivateUserAndItsSubscriptions(long userId) {
+        // Read the state being removed from the statistics
+        userRepository.findProfileById(userId)
+                // Fall back to the full user if it is not migrated yet
+                .or(() -> userRepository.findById(userId).map(UserProfile::of))
+                .ifPresent(profile -> statisticsRegistry.recordUserDeactivated(
+                        !profile.getUserRole().equals(UserRole.UNAUTHORISED),
+                        profile.getActiveProviderMask()
+                ));
+
         // Lower the UserRole to UNAUTHORISED
         userRepository.deactivateUserByUserId(userId);
 
         // Deactivate all subscriptions of the leaving user
         subscriptionRepository.deactivateAllUserSubscriptionsByUserId(userId);
+
+        // Discard any preloaded and cached copies of the user
+        userPreloadCache.invalidateAfterCommit(userId);
+        userProfileCache.invalidateAfterCommit(userId);
     }
 
     /**
-     * Returns the number of rows in the user table.
+     * Returns the number of registered users.
      *
      * @return the total number of users stored in the database
      */
     private long countTotalUsers() {
-        return userRepository.count();
+        return statisticsRegistry.getTotalUsers();
     }
 
     /**
-     * Returns the number of non-UNAUTHORISED users stored in the database.
+     * Returns the number of non-UNAUTHORISED users.
      *
-     * @return the number of active users in the database
+     * @return the number of active users
      */
-    private int countActiveUsers() {
-        return userRepository.countByUserRoleIsNot(UserRole.UNAUTHORISED);
+    private long countActiveUsers() {
+        return statisticsRegistry.getActiveUsers();
     }
 
     /**
-     * Counts the number of active subscriptions in the repository.
+     * Returns the number of active subscriptions.
      *
      * @return the number of subscriptions with active status set to true
      */
-    private int countActiveSubscriptions() {
-        return subscriptionRepository.countAllByActiveIs(true);
+    private long countActiveSubscriptions() {
+        return statisticsRegistry.getActiveSubscriptions();
     }
 
     /**
@@ -157,17 +186,17 @@ public class UserService {
      * @return a long value representing the count of articles sent
      */
     private long countArticlesSent() {
-        return userRepository.getTotalOfArticlesReceived();
+        return statisticsRegistry.getArticlesSent();
     }
 
     /**
-     * Returns a comma-separated list with the names of the top news providers in the repository.
+     * Returns a comma-separated list with the names of the top news providers.
      *
      * @return a string containing the names of the top providers,
      * or "No active subscriptions" if none are found
      */
     private String getTopProviders() {
-        String topProviders = subscriptionRepository.findDistinctTopProviders().stream()
+        String topProviders = statisticsRegistry.getTopProviders().stream()
                 .map(NewsProvider::name)
                 .collect(Collectors.joining(", "));
 
@@ -182,14 +211,17 @@ public class UserService {
     /**
      * Returns the last update time of the subscriptions in UTC format.
      *
-     * @return a String value representing the date and time of the last update
+     * @return a String value representing the date and time of the last update, or "None" if unknown
      */
     private String getLastUpdateTime() {
-        return subscriptionRepository.getMostRecentReadTime()
-                .format(
-                        DateTimeFormatter.ofPattern("dd-MMM-yyyy HH:mm z")
-                                .withZone(ZoneId.of("UTC"))
-                );
+        ZonedDateTime lastUpdateTime = statisticsRegistry.getLastUpdateTime();
+        if (lastUpdateTime == null) {
+            return "None";
+        }
+        return lastUpdateTime.format(
+                DateTimeFormatter.ofPattern("dd-MMM-yyyy HH:mm z")
+                        .withZone(ZoneId.of("UTC"))
+        );
     }
 
     /**
@@ -205,8 +237,8 @@ public class UserService {
      */
     private String composeReply(
             long countTotalUsers,
-            int activeUsersCount,
-            int activeSubscriptionsCount,
+            long activeUsersCount,
+            long activeSubscriptionsCount,
             long articlesSentCount,
             String topProviders,
             String lastUpdateTime
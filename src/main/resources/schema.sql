@@ -5,6 +5,7 @@ CREATE TABLE IF NOT EXISTS users
     id                BIGINT NOT NULL,
     user_role         VARCHAR(255) DEFAULT 'GUEST',
     articles_received BIGINT       DEFAULT NULL,
+    active_providers  INT          DEFAULT NULL,
     PRIMARY KEY (id)
 );
 
@@ -26,3 +27,39 @@ CREATE TABLE IF NOT EXISTS subscriptions
     PRIMARY KEY (id),
     FOREIGN KEY (user_id) REFERENCES users (id)
 );
+
+CREATE TABLE IF NOT EXISTS outbox_bodies
+(
+    id   BIGINT NOT NULL AUTO_INCREMENT,
+    body TEXT   NOT NULL,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE IF NOT EXISTS outbox_messages
+(
+    id              BIGINT      NOT NULL AUTO_INCREMENT,
+    telegram_id     BIGINT      NOT NULL,
+    subscription_id BIGINT      NOT NULL,
+    body_id         BIGINT      NOT NULL,
+    cursor_target   DATETIME(6) NOT NULL,
+    is_delivered    TINYINT(1)  NOT NULL,
+    is_dropped      TINYINT(1)  NOT NULL,
+    PRIMARY KEY (id),
+    INDEX idx_outbox_pending (is_delivered, is_dropped, telegram_id, id),
+    INDEX idx_outbox_body (body_id)
+);
+
+CREATE TABLE IF NOT EXISTS shard_leases
+(
+    shard_id   INT          NOT NULL,
+    owner_id   VARCHAR(255) DEFAULT NULL,
+    expires_at DATETIME(6)  DEFAULT NULL,
+    PRIMARY KEY (shard_id)
+);
+
+CREATE TABLE IF NOT EXISTS scheduler_nodes
+(
+    node_id    VARCHAR(255) NOT NULL,
+    expires_at DATETIME(6)  NOT NULL,
+    PRIMARY KEY (node_id)
+);
@@ -0,0 +1,82 @@
+package com.uvarchev.javatelebot.bot;
+
+import com.uvarchev.javatelebot.dto.DeliveryResult;
+import com.uvarchev.javatelebot.dto.Reply;
+import com.uvarchev.javatelebot.service.ExceptionService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.telegram.telegrambots.meta.api.methods.send.SendMessage;
+import org.telegram.telegrambots.meta.api.objects.ApiResponse;
+import org.telegram.telegrambots.meta.exceptions.TelegramApiRequestException;
+
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+class TelebotTest {
+
+    @Mock
+    private ExceptionService exceptionService;
+
+    private Telebot telebot;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        TelebotConfig config = new TelebotConfig();
+        config.setBotToken("token");
+        telebot = spy(new Telebot(config, 1));
+        ReflectionTestUtils.setField(telebot, "exceptionService", exceptionService);
+    }
+
+    @Test
+    void sendMessageAsync_completesNormallyWhenHandlingFailureThrows() throws Exception {
+        // Setup
+        doReturn(CompletableFuture.failedFuture(forbidden()))
+                .when(telebot).executeAsync(any(SendMessage.class));
+        doThrow(new IllegalStateException("Database is down"))
+                .when(exceptionService).handleTelegramApiRequestException(anyInt(), any(), anyLong());
+        Reply reply = new Reply(1L, "Article", 10L);
+
+        // Execute
+        CompletableFuture<DeliveryResult> sending = telebot.sendMessageAsync(reply);
+
+        // Verify
+        assertFalse(sending.isCompletedExceptionally());
+        assertFalse(sending.join().isDelivered());
+    }
+
+    @Test
+    void sendMessageAsync_releasesInFlightSlotWhenHandlingFailureThrows() throws Exception {
+        // Setup: a single slot, so the second message waits for the first one's release
+        doReturn(CompletableFuture.failedFuture(forbidden()))
+                .when(telebot).executeAsync(any(SendMessage.class));
+        doThrow(new IllegalStateException("Database is down"))
+                .when(exceptionService).handleTelegramApiRequestException(anyInt(), any(), anyLong());
+
+        // Execute
+        telebot.sendMessageAsync(new Reply(1L, "Article 1", 10L)).join();
+        DeliveryResult second = telebot.sendMessageAsync(new Reply(1L, "Article 2", 11L)).join();
+
+        // Verify
+        assertFalse(second.isDelivered());
+        verify(exceptionService, times(2)).handleTelegramApiRequestException(anyInt(), any(), anyLong());
+    }
+
+    private static TelegramApiRequestException forbidden() {
+        // The response is only ever deserialised, so its fields are set directly
+        ApiResponse<Object> response = new ApiResponse<>();
+        ReflectionTestUtils.setField(response, "ok", false);
+        ReflectionTestUtils.setField(response, "errorCode", 403);
+        ReflectionTestUtils.setField(response, "errorDescription", "Forbidden: bot was blocked by the user");
+        return new TelegramApiRequestException("Error sending message", response);
+    }
+
+}
@@ -0,0 +1,83 @@
+package com.uvarchev.javatelebot.bot;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A local stand-in for Telegram that pushes text message updates to a webhook endpoint,
+ * using the same payload format and secret token header as Telegram does.
+ * Several connections may be used at once to load-test the webhook without network access.
+ */
+class TelegramStandIn {
+
+    private final HttpClient httpClient = HttpClient.newHttpClient();
+    private final AtomicInteger updateIds = new AtomicInteger();
+    private final URI webhookUri;
+    private final String secretToken;
+
+    TelegramStandIn(URI webhookUri, String secretToken) {
+        this.webhookUri = webhookUri;
+        this.secretToken = secretToken;
+    }
+
+    /**
+     * Pushes a single text message update.
+     *
+     * @param userId the id of the user sending the message
+     * @param text   the text of the message
+     * @return the HTTP status returned by the webhook
+     */
+    int postMessage(long userId, String text) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(webhookUri)
+                .header("Content-Type", "application/json")
+                .header(WebhookController.SECRET_TOKEN_HEADER, secretToken)
+                .POST(HttpRequest.BodyPublishers.ofString(createUpdateJson(userId, text)))
+                .build();
+        return httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    /**
+     * Pushes updates of several users over the given number of concurrent connections.
+     *
+     * @param userCount       the number of distinct users
+     * @param updatesPerUser  the number of messages sent by each user
+     * @param connections     the maximum number of concurrent requests
+     * @return the number of responses by HTTP status
+     */
+    Map<Integer, Integer> postLoad(int userCount, int updatesPerUser, int connections) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(connections);
+        try {
+            List<Future<Integer>> statuses = new ArrayList<>();
+            for (int i = 0; i < updatesPerUser; i++) {
+                for (long userId = 1; userId <= userCount; userId++) {
+                    long sender = userId;
+                    statuses.add(executor.submit(() -> postMessage(sender, "/start")));
+                }
+            }
+
+            Map<Integer, Integer> counts = new ConcurrentHashMap<>();
+            for (Future<Integer> status : statuses) {
+                counts.merge(status.get(30, TimeUnit.SECONDS), 1, Integer::sum);
+            }
+            return counts;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private String createUpdateJson(long userId, String text) {
+        return "{\"update_id\":" + updateIds.incrementAndGet() + "," +
+                "\"message\":{\"message_id\":" + updateIds.get() + ",\"date\":" + System.currentTimeMillis() / 1000 + "," +
+                "\"from\":{\"id\":" + userId + ",\"is_bot\":false,\"first_name\":\"User\"}," +
+                "\"chat\":{\"id\":" + userId + ",\"type\":\"private\",\"first_name\":\"User\"}," +
+                "\"text\":\"" + text + "\"}}";
+    }
+
+}
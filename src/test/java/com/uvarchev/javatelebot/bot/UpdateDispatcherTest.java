@@ -0,0 +1,99 @@
+package com.uvarchev.javatelebot.bot;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UpdateDispatcherTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private UpdateDispatcher updateDispatcher;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        updateDispatcher = new UpdateDispatcher(meterRegistry, 2, 10);
+    }
+
+    @Test
+    void dispatch_handlesUpdatesOfSameUserInOrder() throws InterruptedException {
+        // Setup
+        List<Integer> handled = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch completed = new CountDownLatch(20);
+
+        // Execute
+        for (int i = 0; i < 20; i++) {
+            int update = i;
+            updateDispatcher.dispatch(1L, () -> {
+                handled.add(update);
+                completed.countDown();
+            });
+        }
+
+        // Verify
+        assertTrue(completed.await(5, TimeUnit.SECONDS));
+        List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            expected.add(i);
+        }
+        assertEquals(expected, handled);
+    }
+
+    @Test
+    void slowUser_doesNotBlockOtherUsers() throws InterruptedException {
+        // Setup
+        CountDownLatch slowUserReleased = new CountDownLatch(1);
+        CountDownLatch otherUserHandled = new CountDownLatch(1);
+
+        // Execute: users 1 and 2 fall into different stripes
+        updateDispatcher.dispatch(1L, () -> {
+            try {
+                slowUserReleased.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        updateDispatcher.dispatch(2L, otherUserHandled::countDown);
+
+        // Verify
+        assertTrue(otherUserHandled.await(5, TimeUnit.SECONDS),
+                "Another user's update should be handled while the first user's one is still running.");
+        slowUserReleased.countDown();
+    }
+
+    @Test
+    void dispatch_recordsLatencyAndQueueDepth() throws InterruptedException {
+        // Setup
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch completed = new CountDownLatch(3);
+        Runnable blocking = () -> {
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            completed.countDown();
+        };
+
+        // Execute
+        updateDispatcher.dispatch(1L, blocking);
+        updateDispatcher.dispatch(1L, blocking);
+        updateDispatcher.dispatch(1L, blocking);
+
+        // Verify
+        assertTrue(meterRegistry.get("telebot.updates.queue.depth").gauge().value() >= 1);
+        release.countDown();
+        assertTrue(completed.await(5, TimeUnit.SECONDS));
+        assertEquals(0, meterRegistry.get("telebot.updates.queue.depth").gauge().value());
+        assertTrue(meterRegistry.get("telebot.updates.latency").timer().count() >= 2);
+    }
+
+}
@@ -0,0 +1,104 @@
+package com.uvarchev.javatelebot.bot;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.telegram.telegrambots.meta.api.objects.Update;
+
+import java.net.URI;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+/**
+ * Runs the webhook endpoint on a local web server and pushes updates to it through a Telegram stand-in.
+ */
+class WebhookControllerTest {
+
+    private static final String SECRET_TOKEN = "test-secret_token";
+    private static final String PATH = "/telegram/webhook";
+
+    @Configuration
+    @EnableAutoConfiguration(exclude = {DataSourceAutoConfiguration.class, HibernateJpaAutoConfiguration.class})
+    @Import({WebhookController.class, WebhookConfig.class})
+    static class WebhookTestConfig {
+    }
+
+    private final Telebot telebot = mock(Telebot.class);
+    private ConfigurableApplicationContext context;
+    private URI webhookUri;
+
+    @BeforeEach
+    void setUp() {
+        context = new SpringApplicationBuilder(WebhookTestConfig.class)
+                .properties(
+                        "spring.config.name=webhook-test",
+                        "server.port=0",
+                        "server.tomcat.threads.max=4",
+                        "telebot.mode=webhook",
+                        "telebot.webhook.path=" + PATH,
+                        "telebot.webhook.secret-token=" + SECRET_TOKEN
+                )
+                .initializers(ctx -> ctx.getBeanFactory().registerSingleton("telebot", telebot))
+                .run();
+        int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+        webhookUri = URI.create("http://localhost:" + port + PATH);
+    }
+
+    @AfterEach
+    void tearDown() {
+        context.close();
+    }
+
+    @Test
+    void whenSecretTokenMatches_thenUpdateIsHandedToBot() throws Exception {
+        // Setup
+        TelegramStandIn telegram = new TelegramStandIn(webhookUri, SECRET_TOKEN);
+
+        // Execute
+        int status = telegram.postMessage(123L, "/start");
+
+        // Verify
+        assertEquals(200, status);
+        verify(telebot).onUpdateReceived(argThat((Update update) ->
+                update.getMessage().getFrom().getId() == 123L && "/start".equals(update.getMessage().getText())));
+    }
+
+    @Test
+    void whenSecretTokenDiffers_thenUpdateIsRejected() throws Exception {
+        // Setup
+        TelegramStandIn telegram = new TelegramStandIn(webhookUri, "wrong-token");
+
+        // Execute
+        int status = telegram.postMessage(123L, "/start");
+
+        // Verify
+        assertEquals(401, status);
+        verify(telebot, never()).onUpdateReceived(any());
+    }
+
+    @Test
+    void whenUpdatesArePushedConcurrently_thenAllAreAccepted() throws Exception {
+        // Setup
+        TelegramStandIn telegram = new TelegramStandIn(webhookUri, SECRET_TOKEN);
+
+        // Execute: more connections than request threads, the rest wait for a free thread
+        Map<Integer, Integer> statuses = telegram.postLoad(50, 10, 16);
+
+        // Verify
+        assertEquals(Map.of(200, 500), statuses);
+        verify(telebot, times(500)).onUpdateReceived(any());
+    }
+
+}
@@ -0,0 +1,129 @@
+package com.uvarchev.javatelebot.command;
+
+import com.uvarchev.javatelebot.dto.Reply;
+import com.uvarchev.javatelebot.service.CommandService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.telegram.telegrambots.meta.api.objects.Chat;
+import org.telegram.telegrambots.meta.api.objects.Message;
+import org.telegram.telegrambots.meta.api.objects.Update;
+import org.telegram.telegrambots.meta.api.objects.User;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+class CommandProcessorTest {
+
+    @Mock
+    private CommandService commandService;
+
+    @InjectMocks
+    private CommandProcessor commandProcessor;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        // Each reply names the command type and the user it was created for
+        when(commandService.processAndRespond(any(StartCommand.class))).thenAnswer(invocation ->
+                describe(invocation.getArgument(0), invocation.<StartCommand>getArgument(0).getUserId()));
+        when(commandService.processAndRespond(any(SubscribeCommand.class))).thenAnswer(invocation ->
+                describe(invocation.getArgument(0), invocation.<SubscribeCommand>getArgument(0).getUserId())
+                        + " " + invocation.<SubscribeCommand>getArgument(0).getMsgText());
+        when(commandService.processAndRespond(any(UnrecognisedCommand.class))).thenAnswer(invocation ->
+                describe(invocation.getArgument(0), invocation.<UnrecognisedCommand>getArgument(0).getUserId()));
+    }
+
+    @Test
+    void processUpdate_matchesCommandKeywordIgnoringCase() {
+        // Setup
+        Update update = createUpdate(1L, 10, "/sTaRt");
+
+        // Execute
+        Reply reply = commandProcessor.processUpdate(update);
+
+        // Verify
+        assertEquals("START 1", reply.getMessageBody());
+        assertEquals(1L, reply.getUserId());
+        assertEquals(10, reply.getMsgId());
+    }
+
+    @Test
+    void processUpdate_extractsKeywordFromMessageWithArguments() {
+        // Setup
+        Update subscribe = createUpdate(1L, 10, "  /subscribe\tNASA SPACEX");
+        Update unknown = createUpdate(1L, 11, "/subscribeNASA");
+
+        // Execute
+        Reply subscribeReply = commandProcessor.processUpdate(subscribe);
+        Reply unknownReply = commandProcessor.processUpdate(unknown);
+
+        // Verify
+        assertEquals("SUBSCRIBE 1   /subscribe\tNASA SPACEX", subscribeReply.getMessageBody());
+        assertEquals("UNRECOGNISED 1", unknownReply.getMessageBody());
+    }
+
+    @Test
+    void processUpdate_repliesToEachUserWhenProcessedConcurrently() throws Exception {
+        // Setup
+        int threads = Math.max(4, Runtime.getRuntime().availableProcessors());
+        int updateCount = 10_000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Boolean>> results = new ArrayList<>();
+
+        // Execute
+        for (int i = 0; i < updateCount; i++) {
+            long userId = i;
+            String text = i % 2 == 0 ? "/start" : "/subscribe " + userId;
+            Update update = createUpdate(userId, i, text);
+            results.add(executor.submit(() -> {
+                start.await();
+                Reply reply = commandProcessor.processUpdate(update);
+                String expected = userId % 2 == 0
+                        ? "START " + userId
+                        : "SUBSCRIBE " + userId + " /subscribe " + userId;
+                return reply.getUserId().equals(userId) && expected.equals(reply.getMessageBody());
+            }));
+        }
+        start.countDown();
+
+        // Verify
+        for (Future<Boolean> result : results) {
+            assertTrue(result.get(10, TimeUnit.SECONDS), "Reply should belong to the user of its update");
+        }
+        executor.shutdown();
+    }
+
+    private static String describe(Command command, Long userId) {
+        return command.getType() + " " + userId;
+    }
+
+    private static Update createUpdate(Long userId, Integer msgId, String text) {
+        User from = new User();
+        from.setId(userId);
+        from.setFirstName("User " + userId);
+
+        Chat chat = new Chat();
+        chat.setId(userId);
+        chat.setFirstName("User " + userId);
+
+        Message message = new Message();
+        message.setMessageId(msgId);
+        message.setText(text);
+        message.setFrom(from);
+        message.setChat(chat);
+
+        Update update = new Update();
+        update.setMessage(message);
+        return update;
+    }
+
+}
@@ -0,0 +1,118 @@
+package com.uvarchev.javatelebot.network;
+
+import com.uvarchev.javatelebot.dto.NewsResults;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ApiClientTest {
+
+    private static final String PAGE = "{\"count\": 2, \"next\": %s, \"results\": [" +
+            "{\"title\": \"Article 1\", \"news_site\": \"NASA\", \"published_at\": \"2024-01-10T12:30:15Z\"}]}";
+
+    @TempDir
+    private Path cacheDir;
+
+    private MockWebServer server;
+    private ApiClient apiClient;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = new MockWebServer();
+        server.start();
+
+        NewsApiConfig config = new NewsApiConfig();
+        config.setBaseUrl(server.url("/").toString());
+        config.setCacheDir(cacheDir.toString());
+        config.setCacheSizeMb(1);
+        config.setConnectTimeoutSeconds(5);
+        config.setReadTimeoutSeconds(5);
+        config.setMaxIdleConnections(1);
+        config.setKeepAliveMinutes(1);
+        apiClient = new ApiClient(config);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        server.shutdown();
+    }
+
+    @Test
+    void getFirstPage_requestsChronologicalPageOfNewsSite() throws InterruptedException {
+        // Setup
+        server.enqueue(new MockResponse().setBody(PAGE.formatted("null")));
+
+        // Execute
+        NewsResults page = apiClient.getFirstPage("NASA", "2024-01-10T00:00:00Z", 100);
+
+        // Verify
+        RecordedRequest request = server.takeRequest();
+        assertEquals("/v4/articles/", request.getRequestUrl().encodedPath());
+        assertEquals("100", request.getRequestUrl().queryParameter("limit"));
+        assertEquals("NASA", request.getRequestUrl().queryParameter("news_site"));
+        assertEquals("2024-01-10T00:00:00Z", request.getRequestUrl().queryParameter("published_at_gt"));
+        assertEquals("published_at", request.getRequestUrl().queryParameter("ordering"));
+        assertEquals("gzip", request.getHeader("Accept-Encoding"));
+
+        assertNull(page.getNext());
+        assertEquals(1, page.getResults().size());
+        assertEquals(Instant.parse("2024-01-10T12:30:15Z"), page.getResults().get(0).getPublishedAt());
+    }
+
+    @Test
+    void getNextPage_followsNextLink() throws InterruptedException {
+        // Setup
+        String nextUrl = server.url("/v4/articles/?limit=100&offset=100").toString();
+        server.enqueue(new MockResponse().setBody(PAGE.formatted("\"" + nextUrl + "\"")));
+        server.enqueue(new MockResponse().setBody(PAGE.formatted("null")));
+
+        // Execute
+        NewsResults firstPage = apiClient.getFirstPage("NASA", "2024-01-10T00:00:00Z", 100);
+        NewsResults secondPage = apiClient.getNextPage(firstPage.getNext());
+
+        // Verify
+        server.takeRequest();
+        assertEquals("100", server.takeRequest().getRequestUrl().queryParameter("offset"));
+        assertNull(secondPage.getNext());
+    }
+
+    @Test
+    void unchangedPage_isRevalidatedAndServedFromCache() throws InterruptedException {
+        // Setup
+        server.enqueue(new MockResponse()
+                .setHeader("ETag", "\"v1\"")
+                .setBody(PAGE.formatted("null")));
+        server.enqueue(new MockResponse().setResponseCode(304));
+
+        // Execute
+        apiClient.getFirstPage("NASA", "2024-01-10T00:00:00Z", 100);
+        NewsResults cachedPage = apiClient.getFirstPage("NASA", "2024-01-10T00:00:00Z", 100);
+
+        // Verify
+        server.takeRequest();
+        assertEquals("\"v1\"", server.takeRequest().getHeader("If-None-Match"),
+                "A cached page should be revalidated with its ETag.");
+        assertEquals("Article 1", cachedPage.getResults().get(0).getTitle());
+    }
+
+    @Test
+    void errorResponse_throwsException() {
+        // Setup
+        server.enqueue(new MockResponse().setResponseCode(500));
+
+        // Execute & Verify
+        assertThrows(IllegalStateException.class,
+                () -> apiClient.getFirstPage("NASA", "2024-01-10T00:00:00Z", 100));
+    }
+
+}
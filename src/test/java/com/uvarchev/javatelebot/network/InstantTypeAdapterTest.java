@@ -0,0 +1,53 @@
+package com.uvarchev.javatelebot.network;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.uvarchev.javatelebot.dto.News;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InstantTypeAdapterTest {
+
+    private final Gson gson = new GsonBuilder()
+            .registerTypeAdapter(Instant.class, new InstantTypeAdapter())
+            .create();
+
+    @Test
+    void read_parsesUtcTimestamp() {
+        News news = gson.fromJson("{\"published_at\": \"2024-01-10T12:30:15Z\"}", News.class);
+
+        assertEquals(Instant.parse("2024-01-10T12:30:15Z"), news.getPublishedAt());
+    }
+
+    @Test
+    void read_parsesTimestampWithOffsetAndFraction() {
+        News news = gson.fromJson("{\"published_at\": \"2024-01-10T14:30:15.250+02:00\"}", News.class);
+
+        assertEquals(Instant.parse("2024-01-10T12:30:15.250Z"), news.getPublishedAt());
+    }
+
+    @Test
+    void read_keepsNullTimestamp() {
+        News news = gson.fromJson("{\"published_at\": null}", News.class);
+
+        assertNull(news.getPublishedAt());
+    }
+
+    @Test
+    void read_keepsPublishTimeFormatOfRenderedArticle() {
+        News news = gson.fromJson("{\"title\": \"Title\", \"published_at\": \"2024-06-04T16:20:23Z\"}", News.class);
+
+        assertTrue(news.toString().endsWith("Published: 2024-06-04T16:20:23Z"));
+    }
+
+    @Test
+    void read_rendersPublishTimeWithOffsetInUtc() {
+        News news = gson.fromJson("{\"published_at\": \"2024-06-04T18:20:00+02:00\"}", News.class);
+
+        assertTrue(news.toString().endsWith("Published: 2024-06-04T16:20:00Z"));
+    }
+
+}
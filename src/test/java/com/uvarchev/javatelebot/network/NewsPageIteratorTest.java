@@ -0,0 +1,88 @@
+package com.uvarchev.javatelebot.network;
+
+import com.uvarchev.javatelebot.dto.News;
+import com.uvarchev.javatelebot.dto.NewsResults;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NewsPageIteratorTest {
+
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        executor = Executors.newSingleThreadExecutor();
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void iterator_followsNextLinksUntilLastPage() {
+        // Setup
+        Map<String, NewsResults> pages = Map.of(
+                "page2", page("page3", "Article 3", "Article 4"),
+                "page3", page(null, "Article 5")
+        );
+
+        // Execute
+        List<String> titles = new ArrayList<>();
+        try (NewsPageIterator iterator = new NewsPageIterator(
+                () -> page("page2", "Article 1", "Article 2"), pages::get, 1, executor)) {
+            iterator.forEachRemaining(article -> titles.add(article.getTitle()));
+        }
+
+        // Verify
+        assertEquals(List.of("Article 1", "Article 2", "Article 3", "Article 4", "Article 5"), titles);
+    }
+
+    @Test
+    void iterator_isEmptyWhenFirstPageIsMissing() {
+        // Execute
+        try (NewsPageIterator iterator = new NewsPageIterator(() -> null, url -> null, 1, executor)) {
+            // Verify
+            assertFalse(iterator.hasNext());
+        }
+    }
+
+    @Test
+    void iterator_reportsFailureOfNextPage() {
+        // Setup
+        NewsPageIterator iterator = new NewsPageIterator(
+                () -> page("page2", "Article 1"),
+                url -> {
+                    throw new IllegalStateException("Spaceflight News API responded with 500");
+                },
+                1,
+                executor
+        );
+
+        // Execute
+        assertEquals("Article 1", iterator.next().getTitle());
+
+        // Verify
+        assertThrows(IllegalStateException.class, iterator::hasNext);
+        iterator.close();
+    }
+
+    private NewsResults page(String next, String... titles) {
+        NewsResults page = new NewsResults();
+        page.setNext(next);
+        page.setResults(Arrays.stream(titles).map(title -> {
+            News article = new News();
+            article.setTitle(title);
+            return article;
+        }).toList());
+        return page;
+    }
+
+}
@@ -0,0 +1,105 @@
+package com.uvarchev.javatelebot.periodic;
+
+import com.uvarchev.javatelebot.dto.ProviderCursor;
+import com.uvarchev.javatelebot.enums.NewsProvider;
+import com.uvarchev.javatelebot.network.NewsFetcher;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class AdaptivePollerTest {
+
+    private static final Instant START = Instant.parse("2024-01-10T12:00:00Z");
+
+    @Mock
+    private NewsFetcher newsFetcher;
+
+    private AdaptivePoller adaptivePoller;
+
+    private final List<ProviderCursor> cursors = List.of(
+            new ProviderCursor(NewsProvider.NASA, START.minusSeconds(3600).atZone(ZoneOffset.UTC)),
+            new ProviderCursor(NewsProvider.SPACENEWS, START.minusSeconds(3600).atZone(ZoneOffset.UTC))
+    );
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        adaptivePoller = new AdaptivePoller(newsFetcher, 60, 600);
+    }
+
+    @Test
+    void firstPoll_returnsOnlyProvidersWithNewArticles() {
+        // Setup
+        when(newsFetcher.hasNewArticles(eq(NewsProvider.NASA), any())).thenReturn(true);
+        when(newsFetcher.hasNewArticles(eq(NewsProvider.SPACENEWS), any())).thenReturn(false);
+
+        // Execute
+        List<ProviderCursor> updated = adaptivePoller.pollDueProviders(cursors, START);
+
+        // Verify
+        assertEquals(List.of(NewsProvider.NASA), updated.stream().map(ProviderCursor::getProvider).toList());
+    }
+
+    @Test
+    void quietProvider_isPolledLessOftenEachTime() {
+        // Setup
+        when(newsFetcher.hasNewArticles(any(), any())).thenReturn(false);
+        List<ProviderCursor> nasa = cursors.subList(0, 1);
+
+        // Execute: quiet polls back off to 60, 120 and 240 seconds
+        adaptivePoller.pollDueProviders(nasa, START);
+        adaptivePoller.pollDueProviders(nasa, START.plusSeconds(60));
+        adaptivePoller.pollDueProviders(nasa, START.plusSeconds(120));
+        adaptivePoller.pollDueProviders(nasa, START.plusSeconds(179));
+        adaptivePoller.pollDueProviders(nasa, START.plusSeconds(180));
+        adaptivePoller.pollDueProviders(nasa, START.plusSeconds(419));
+
+        // Verify
+        verify(newsFetcher, times(3)).hasNewArticles(eq(NewsProvider.NASA), any());
+    }
+
+    @Test
+    void fetchedProvider_isCheckedForArticlesPublishedAfterTheLatestFetchedOne() {
+        // Setup: the latest article fetched was published well before the poll
+        when(newsFetcher.hasNewArticles(any(), any())).thenReturn(true);
+        List<ProviderCursor> nasa = cursors.subList(0, 1);
+        Instant latestPublishedAt = START.minusSeconds(1800);
+
+        // Execute
+        adaptivePoller.pollDueProviders(nasa, START);
+        adaptivePoller.recordFetched(Map.of(NewsProvider.NASA, latestPublishedAt));
+        adaptivePoller.pollDueProviders(nasa, START.plusSeconds(60));
+
+        // Verify articles ingested late, published between the latest fetched one and the poll, are found
+        verify(newsFetcher).hasNewArticles(NewsProvider.NASA, cursors.get(0).getOldestRead());
+        verify(newsFetcher).hasNewArticles(NewsProvider.NASA, latestPublishedAt.atZone(ZoneOffset.UTC));
+    }
+
+    @Test
+    void providerWithoutFetchedArticles_isCheckedFromItsCursor() {
+        // Setup
+        when(newsFetcher.hasNewArticles(any(), any())).thenReturn(true);
+        List<ProviderCursor> nasa = cursors.subList(0, 1);
+
+        // Execute
+        adaptivePoller.pollDueProviders(nasa, START);
+        adaptivePoller.recordFetched(Map.of());
+        adaptivePoller.pollDueProviders(nasa, START.plusSeconds(60));
+
+        // Verify
+        verify(newsFetcher, times(2)).hasNewArticles(NewsProvider.NASA, cursors.get(0).getOldestRead());
+    }
+
+}
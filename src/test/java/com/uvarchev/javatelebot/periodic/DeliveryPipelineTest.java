@@ -0,0 +1,194 @@
+package com.uvarchev.javatelebot.periodic;
+
+import com.uvarchev.javatelebot.dto.DispatchResult;
+import com.uvarchev.javatelebot.dto.DistributionResult;
+import com.uvarchev.javatelebot.dto.Reply;
+import com.uvarchev.javatelebot.entity.OutboxMessage;
+import com.uvarchev.javatelebot.service.SchedulerService;
+import com.uvarchev.javatelebot.service.ShardLeaseService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntConsumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class DeliveryPipelineTest {
+
+    @Mock
+    private SchedulerService schedulerService;
+
+    @Mock
+    private ReplyDispatcher replyDispatcher;
+
+    @Mock
+    private ShardLeaseService shardLeaseService;
+
+    private SimpleMeterRegistry meterRegistry;
+    private DeliveryPipeline deliveryPipeline;
+
+    private final OutboxMessage message = new OutboxMessage(123L, 10L, 100L, ZonedDateTime.now());
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        meterRegistry = new SimpleMeterRegistry();
+        deliveryPipeline = new DeliveryPipeline(schedulerService, replyDispatcher, shardLeaseService, meterRegistry, 2);
+
+        message.setId(1L);
+        when(schedulerService.composeReplies(any())).thenReturn(new LinkedList<>());
+        when(shardLeaseService.getOwnedShards()).thenReturn(Set.of(0, 1));
+    }
+
+    @Test
+    void run_startsSendingWhileDistributionIsStillProducing() throws InterruptedException {
+        // Setup
+        CountDownLatch firstBlockSent = new CountDownLatch(1);
+        boolean[] sentBeforeDistributionEnded = {false};
+        when(schedulerService.loadPendingDeliveries()).thenReturn(List.of(message), List.of());
+        when(replyDispatcher.dispatch(any())).thenAnswer(invocation -> {
+            firstBlockSent.countDown();
+            return delivered();
+        });
+        when(schedulerService.enqueueScheduledNewsUpdate(any(), any())).thenAnswer(invocation -> {
+            IntConsumer onBlockCommitted = invocation.getArgument(1);
+            onBlockCommitted.accept(1);
+            // Keep distributing until the first block was sent
+            sentBeforeDistributionEnded[0] = firstBlockSent.await(5, TimeUnit.SECONDS);
+            return enqueued(1);
+        });
+
+        // Execute
+        int enqueuedCount = deliveryPipeline.run(List.of()).getEnqueuedCount();
+
+        // Verify
+        assertEquals(1, enqueuedCount);
+        assertTrue(sentBeforeDistributionEnded[0], "The first block should be sent during distribution.");
+        verify(schedulerService).completeDeliveries(eq(List.of(message)), any());
+    }
+
+    @Test
+    void run_recordsStageTimesAndQueueDepth() {
+        // Setup
+        when(schedulerService.loadPendingDeliveries()).thenReturn(List.of(message), List.of());
+        when(replyDispatcher.dispatch(any())).thenReturn(delivered());
+        when(schedulerService.enqueueScheduledNewsUpdate(any(), any())).thenAnswer(invocation -> {
+            invocation.<IntConsumer>getArgument(1).accept(1);
+            return enqueued(1);
+        });
+
+        // Execute
+        deliveryPipeline.run(List.of());
+
+        // Verify
+        assertEquals(1, meterRegistry.get("telebot.pipeline.stage").tag("stage", "distribute").timer().count());
+        assertEquals(1, meterRegistry.get("telebot.pipeline.stage").tag("stage", "send").timer().count());
+        assertEquals(1, meterRegistry.get("telebot.pipeline.stage").tag("stage", "complete").timer().count());
+        assertEquals(0, meterRegistry.get("telebot.pipeline.queue.depth").gauge().value());
+    }
+
+    @Test
+    void whenDistributionFails_thenCommittedBlocksAreStillSent() {
+        // Setup
+        when(schedulerService.loadPendingDeliveries()).thenReturn(List.of(message), List.of());
+        when(replyDispatcher.dispatch(any())).thenReturn(delivered());
+        when(schedulerService.enqueueScheduledNewsUpdate(any(), any())).thenAnswer(invocation -> {
+            invocation.<IntConsumer>getArgument(1).accept(1);
+            throw new IllegalStateException("Spaceflight News API responded with 500");
+        });
+
+        // Execute
+        assertThrows(IllegalStateException.class, () -> deliveryPipeline.run(List.of()));
+
+        // Verify
+        verify(schedulerService).completeDeliveries(eq(List.of(message)), any());
+    }
+
+    @Test
+    void whenSenderFails_thenDistributionIsNotBlocked() {
+        // Setup: every block fails to complete, more blocks are committed than the queue holds
+        when(schedulerService.loadPendingDeliveries()).thenReturn(List.of(message));
+        when(replyDispatcher.dispatch(any())).thenReturn(delivered());
+        doThrow(new IllegalStateException("Connection refused"))
+                .when(schedulerService).completeDeliveries(any(), any());
+        when(schedulerService.enqueueScheduledNewsUpdate(any(), any())).thenAnswer(invocation -> {
+            IntConsumer onBlockCommitted = invocation.getArgument(1);
+            for (int i = 0; i < 5; i++) {
+                onBlockCommitted.accept(1);
+            }
+            return enqueued(5);
+        });
+
+        // Execute
+        int enqueuedCount = assertTimeoutPreemptively(Duration.ofSeconds(5), () -> deliveryPipeline.run(List.of()).getEnqueuedCount());
+
+        // Verify the failed sender stops sending but keeps draining the queue
+        assertEquals(5, enqueuedCount);
+        verify(schedulerService, times(1)).completeDeliveries(any(), any());
+    }
+
+    @Test
+    void whenBatchMakesNoProgress_thenSendingStallsUntilTheNextRun() {
+        // Setup: the dispatcher delivers nothing, as if it was interrupted
+        when(schedulerService.loadPendingDeliveries()).thenReturn(List.of(message));
+        when(replyDispatcher.dispatch(any())).thenReturn(new DispatchResult());
+        when(schedulerService.enqueueScheduledNewsUpdate(any(), any())).thenAnswer(invocation -> {
+            IntConsumer onBlockCommitted = invocation.getArgument(1);
+            for (int i = 0; i < 5; i++) {
+                onBlockCommitted.accept(1);
+            }
+            return enqueued(5);
+        });
+
+        // Execute
+        int enqueuedCount = assertTimeoutPreemptively(Duration.ofSeconds(5), () -> deliveryPipeline.run(List.of()).getEnqueuedCount());
+
+        // Verify the stalled batch is sent once and the remaining blocks are left in the outbox
+        assertEquals(5, enqueuedCount);
+        verify(replyDispatcher, times(1)).dispatch(any());
+        verify(schedulerService, times(1)).completeDeliveries(any(), any());
+    }
+
+    @Test
+    void whenShardsAreLost_thenSendingStopsBeforeNextBatch() {
+        // Setup: the second batch is loaded after the leases of shard 1 were lost
+        OutboxMessage next = new OutboxMessage(124L, 11L, 100L, ZonedDateTime.now());
+        next.setId(2L);
+        when(schedulerService.loadPendingDeliveries()).thenReturn(List.of(message), List.of(next));
+        when(replyDispatcher.dispatch(any())).thenReturn(delivered());
+        when(shardLeaseService.getOwnedShards()).thenReturn(Set.of(0, 1), Set.of(0, 1), Set.of(0));
+
+        // Execute
+        boolean completed = deliveryPipeline.sendPendingDeliveries();
+
+        // Verify
+        assertFalse(completed);
+        verify(replyDispatcher, times(1)).dispatch(any());
+        verify(schedulerService, never()).completeDeliveries(eq(List.of(next)), any());
+    }
+
+    private DispatchResult delivered() {
+        DispatchResult result = new DispatchResult();
+        result.registerDelivered(new Reply(123L, "Article", List.of(10L), 1, List.of(1L)));
+        return result;
+    }
+
+    private static DistributionResult enqueued(int count) {
+        DistributionResult result = new DistributionResult();
+        result.registerEnqueued(count);
+        return result;
+    }
+
+}
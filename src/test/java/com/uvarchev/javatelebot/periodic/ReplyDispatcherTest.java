@@ -0,0 +1,154 @@
+package com.uvarchev.javatelebot.periodic;
+
+import com.uvarchev.javatelebot.bot.Telebot;
+import com.uvarchev.javatelebot.dto.DeliveryResult;
+import com.uvarchev.javatelebot.dto.DispatchResult;
+import com.uvarchev.javatelebot.dto.Reply;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+class ReplyDispatcherTest {
+
+    @Mock
+    private Telebot telebot;
+
+    private ReplyDispatcher replyDispatcher;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        // High rates keep the test fast while still going through the rate limiters
+        replyDispatcher = new ReplyDispatcher(telebot, 4, 1000, 1000, 100);
+    }
+
+    @Test
+    void dispatch_collectsDeliveredRepliesForAllUsers() {
+        // Setup
+        when(telebot.sendMessageAsync(any(Reply.class))).thenAnswer(invocation -> delivered(invocation.getArgument(0), true));
+        Queue<Reply> replies = new LinkedList<>();
+        replies.offer(new Reply(1L, "Article 1", 10L));
+        replies.offer(new Reply(1L, "Article 2", 11L));
+        replies.offer(new Reply(2L, "Article 1", 20L));
+
+        // Execute
+        DispatchResult result = replyDispatcher.dispatch(replies);
+
+        // Verify
+        assertEquals(2L, result.getArticlesReceivedCount().get(1L));
+        assertEquals(1L, result.getArticlesReceivedCount().get(2L));
+        assertEquals(Set.of(10L, 11L, 20L), result.getReceivedSubscriptionIds());
+        assertTrue(result.getFailedAttempts().isEmpty());
+    }
+
+    @Test
+    void dispatch_stopsSendingToUserAfterFirstFailure() {
+        // Setup
+        when(telebot.sendMessageAsync(argThat(reply -> reply != null && reply.getUserId() == 1L)))
+                .thenAnswer(invocation -> delivered(invocation.getArgument(0), false));
+        when(telebot.sendMessageAsync(argThat(reply -> reply != null && reply.getUserId() == 2L)))
+                .thenAnswer(invocation -> delivered(invocation.getArgument(0), true));
+        Queue<Reply> replies = new LinkedList<>();
+        replies.offer(new Reply(1L, "Article 1", 10L));
+        replies.offer(new Reply(1L, "Article 2", 11L));
+        replies.offer(new Reply(2L, "Article 1", 20L));
+
+        // Execute
+        DispatchResult result = replyDispatcher.dispatch(replies);
+
+        // Verify
+        verify(telebot, times(1)).sendMessageAsync(argThat(reply -> reply != null && reply.getUserId() == 1L));
+        assertEquals(Set.of(1L), result.getFailedAttempts());
+        assertEquals(Set.of(20L), result.getReceivedSubscriptionIds());
+        assertFalse(result.getArticlesReceivedCount().containsKey(1L));
+    }
+
+    @Test
+    void dispatch_preservesOrderOfRepliesForSameUser() {
+        // Setup
+        List<String> sent = Collections.synchronizedList(new ArrayList<>());
+        when(telebot.sendMessageAsync(any(Reply.class))).thenAnswer(invocation -> {
+            sent.add(invocation.<Reply>getArgument(0).getMessageBody());
+            // Complete later, on another thread, like a real response
+            return CompletableFuture.supplyAsync(
+                    () -> new DeliveryResult(invocation.getArgument(0), true),
+                    CompletableFuture.delayedExecutor(5, TimeUnit.MILLISECONDS)
+            );
+        });
+        Queue<Reply> replies = new LinkedList<>();
+        for (int i = 0; i < 5; i++) {
+            replies.offer(new Reply(1L, "Article " + i, (long) i));
+        }
+
+        // Execute
+        replyDispatcher.dispatch(replies);
+
+        // Verify
+        assertEquals(List.of("Article 0", "Article 1", "Article 2", "Article 3", "Article 4"), sent);
+    }
+
+    @Test
+    void dispatch_keepsManyRequestsInFlightOnFewThreads() {
+        // Setup: responses arrive only once every recipient's request was sent
+        int recipients = 20;
+        CountDownLatch allSent = new CountDownLatch(recipients);
+        when(telebot.sendMessageAsync(any(Reply.class))).thenAnswer(invocation -> {
+            allSent.countDown();
+            return CompletableFuture.supplyAsync(() -> {
+                try {
+                    allSent.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return new DeliveryResult(invocation.getArgument(0), true);
+            });
+        });
+        Queue<Reply> replies = new LinkedList<>();
+        for (long userId = 1; userId <= recipients; userId++) {
+            replies.offer(new Reply(userId, "Article", userId));
+        }
+
+        // Execute: four dispatcher threads serve twenty concurrent requests
+        DispatchResult result = replyDispatcher.dispatch(replies);
+
+        // Verify
+        assertEquals(recipients, result.getReceivedSubscriptionIds().size());
+        assertTrue(result.getFailedAttempts().isEmpty());
+    }
+
+    @Test
+    void dispatch_keepsChatRateLimitAcrossSessions() {
+        // Setup: one message per 200 ms to each chat
+        ReplyDispatcher slowChatDispatcher = new ReplyDispatcher(telebot, 4, 1000, 5, 100);
+        List<Long> sentAt = Collections.synchronizedList(new ArrayList<>());
+        when(telebot.sendMessageAsync(any(Reply.class))).thenAnswer(invocation -> {
+            sentAt.add(System.nanoTime());
+            return delivered(invocation.getArgument(0), true);
+        });
+
+        // Execute: two consecutive sessions send to the same user
+        slowChatDispatcher.dispatch(new LinkedList<>(List.of(new Reply(1L, "Article 1", 10L))));
+        slowChatDispatcher.dispatch(new LinkedList<>(List.of(new Reply(1L, "Article 2", 10L))));
+
+        // Verify
+        assertEquals(2, sentAt.size());
+        long intervalMillis = TimeUnit.NANOSECONDS.toMillis(sentAt.get(1) - sentAt.get(0));
+        assertTrue(intervalMillis >= 150, "Second session sent after " + intervalMillis + " ms");
+    }
+
+    private static CompletableFuture<DeliveryResult> delivered(Reply reply, boolean delivered) {
+        return CompletableFuture.completedFuture(new DeliveryResult(reply, delivered));
+    }
+
+}
@@ -0,0 +1,75 @@
+package com.uvarchev.javatelebot.service;
+
+import com.sun.management.ThreadMXBean;
+import com.uvarchev.javatelebot.dto.News;
+import com.uvarchev.javatelebot.entity.OutboxBody;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.time.Instant;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Compares the heap allocated while fanning out one article's message body to 10k recipients,
+ * rendering it per recipient as before against the per-run body cache. Run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+class ArticleRenderBenchmarkTest {
+
+    private static final int RECIPIENTS = 10_000;
+    private static final int ROUNDS = 6;
+
+    private final ThreadMXBean threadBean = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    @Test
+    void bodyCache_allocatesOneRenderPerArticle() {
+        // Setup: an article of realistic length
+        News article = new News();
+        article.setId(24861L);
+        article.setTitle("NASA selects commercial partners to mature lunar surface power technologies");
+        article.setSummary("NASA has selected several companies to continue developing vertical solar array " +
+                "and fission surface power concepts, which could provide electricity for crewed and robotic " +
+                "missions near the lunar south pole during the long lunar night. The agency plans to " +
+                "demonstrate the most promising designs on the surface before the end of the decade.");
+        article.setUrl("https://www.nasa.gov/news-release/nasa-selects-commercial-partners-to-mature-lunar-surface-power-technologies/");
+        article.setPublishedAt(Instant.parse("2024-06-04T16:20:23Z"));
+        String[] bodies = new String[RECIPIENTS];
+
+        for (int round = 1; round <= ROUNDS; round++) {
+            // Execute
+            long perRecipientBytes = allocatedBytes(() -> {
+                for (int i = 0; i < RECIPIENTS; i++) {
+                    bodies[i] = article.toString();
+                }
+            });
+
+            long cachedBytes = allocatedBytes(() -> {
+                Map<News, OutboxBody> renderedArticles = new IdentityHashMap<>();
+                for (int i = 0; i < RECIPIENTS; i++) {
+                    bodies[i] = renderedArticles.computeIfAbsent(article, news -> new OutboxBody(news.toString()))
+                            .getBody();
+                }
+            });
+
+            // Verify every recipient shares one body, allocated once
+            for (String body : bodies) {
+                assertSame(bodies[0], body);
+            }
+            assertTrue(cachedBytes < perRecipientBytes);
+            System.out.printf("Round %d: %d chars, rendered per recipient %d bytes, cached %d bytes%n",
+                    round, bodies[0].length(), perRecipientBytes, cachedBytes);
+        }
+    }
+
+    private long allocatedBytes(Runnable fanOut) {
+        long threadId = Thread.currentThread().getId();
+        long before = threadBean.getThreadAllocatedBytes(threadId);
+        fanOut.run();
+        return threadBean.getThreadAllocatedBytes(threadId) - before;
+    }
+
+}
@@ -0,0 +1,80 @@
+package com.uvarchev.javatelebot.service;
+
+import com.uvarchev.javatelebot.dto.Reply;
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Queue;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DigestComposerTest {
+
+    @Test
+    void whenDisabled_thenRepliesAreReturnedUnchanged() {
+        // Setup
+        DigestComposer composer = new DigestComposer(false);
+        Queue<Reply> replies = new LinkedList<>();
+        replies.offer(new Reply(1L, "Article 1", 10L));
+        replies.offer(new Reply(1L, "Article 2", 11L));
+
+        // Execute
+        Queue<Reply> digests = composer.compose(replies);
+
+        // Verify
+        assertSame(replies, digests);
+    }
+
+    @Test
+    void whenEnabled_thenRepliesOfSameUserAreMerged() {
+        // Setup
+        DigestComposer composer = new DigestComposer(true);
+        Queue<Reply> replies = new LinkedList<>();
+        replies.offer(new Reply(1L, "Article 1", 10L));
+        replies.offer(new Reply(2L, "Article 1", 20L));
+        replies.offer(new Reply(1L, "Article 2", 11L));
+        replies.offer(new Reply(1L, "Article 3", 10L));
+
+        // Execute
+        Queue<Reply> digests = composer.compose(replies);
+
+        // Verify
+        assertEquals(2, digests.size(), "Each user should receive a single digest.");
+
+        Reply firstUserDigest = digests.poll();
+        assertEquals(1L, firstUserDigest.getUserId());
+        assertTrue(firstUserDigest.getMessageBody().matches("(?s)Article 1.*Article 2.*Article 3"));
+        assertEquals(List.of(10L, 11L), firstUserDigest.getSubscriptionIds());
+        assertEquals(3, firstUserDigest.getArticleCount());
+
+        Reply secondUserDigest = digests.poll();
+        assertEquals(2L, secondUserDigest.getUserId());
+        assertEquals("Article 1", secondUserDigest.getMessageBody());
+        assertEquals(1, secondUserDigest.getArticleCount());
+    }
+
+    @Test
+    void whenDigestExceedsMessageLimit_thenItIsSplit() {
+        // Setup
+        DigestComposer composer = new DigestComposer(true);
+        String longArticle = "x".repeat(DigestComposer.MAX_MESSAGE_LENGTH / 2);
+        Queue<Reply> replies = new LinkedList<>();
+        replies.offer(new Reply(1L, longArticle, 10L));
+        replies.offer(new Reply(1L, longArticle, 11L));
+        replies.offer(new Reply(1L, "Short article", 12L));
+
+        // Execute
+        Queue<Reply> digests = composer.compose(replies);
+
+        // Verify
+        assertEquals(2, digests.size(), "Articles should be split into two digests.");
+        digests.forEach(digest ->
+                assertTrue(digest.getMessageBody().length() <= DigestComposer.MAX_MESSAGE_LENGTH)
+        );
+        assertEquals(3, digests.stream().mapToInt(Reply::getArticleCount).sum(),
+                "Article count should be preserved across digests.");
+        assertEquals(List.of(10L), digests.peek().getSubscriptionIds());
+    }
+
+}
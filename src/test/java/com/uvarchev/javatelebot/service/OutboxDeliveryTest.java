@@ -0,0 +1,154 @@
+package com.uvarchev.javatelebot.service;
+
+import com.uvarchev.javatelebot.dto.DispatchResult;
+import com.uvarchev.javatelebot.dto.News;
+import com.uvarchev.javatelebot.entity.OutboxMessage;
+import com.uvarchev.javatelebot.entity.Subscription;
+import com.uvarchev.javatelebot.entity.User;
+import com.uvarchev.javatelebot.enums.NewsProvider;
+import com.uvarchev.javatelebot.enums.UserRole;
+import com.uvarchev.javatelebot.network.NewsFetcher;
+import com.uvarchev.javatelebot.repository.OutboxRepository;
+import com.uvarchev.javatelebot.repository.SubscriptionRepository;
+import com.uvarchev.javatelebot.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Distributes and sends news block by block through the outbox of an embedded H2 database.
+ */
+class OutboxDeliveryTest {
+
+    @Configuration
+    @EnableAutoConfiguration
+    @EntityScan(basePackageClasses = User.class)
+    @EnableJpaRepositories(basePackageClasses = UserRepository.class)
+    @Import({SchedulerService.class, StatisticsRegistry.class, UserPreloadCache.class,
+            DigestComposer.class, SeenArticleStore.class})
+    static class OutboxConfig {
+    }
+
+    private static final Instant LAST_READ = Instant.parse("2024-05-01T09:00:00Z");
+
+    private final NewsFetcher newsFetcher = mock(NewsFetcher.class);
+    private final ShardLeaseService shardLeaseService = mock(ShardLeaseService.class);
+    private ConfigurableApplicationContext context;
+    private SchedulerService schedulerService;
+    private UserRepository userRepository;
+    private SubscriptionRepository subscriptionRepository;
+    private OutboxRepository outboxRepository;
+
+    @BeforeEach
+    void setUp() {
+        when(shardLeaseService.getOwnedShards()).thenReturn(Set.of(0));
+        when(shardLeaseService.getShardCount()).thenReturn(1);
+        context = new SpringApplicationBuilder(OutboxConfig.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        // Skip the application's own configuration
+                        "spring.config.name=outbox-test",
+                        "spring.datasource.url=jdbc:h2:mem:" + UUID.randomUUID() + ";MODE=MySQL;DB_CLOSE_DELAY=-1",
+                        "spring.jpa.hibernate.ddl-auto=update",
+                        // Each article is committed in a block of its own
+                        "telebot.scheduler.article-block-size=1"
+                )
+                .initializers(ctx -> {
+                    ctx.getBeanFactory().registerSingleton("newsFetcher", newsFetcher);
+                    ctx.getBeanFactory().registerSingleton("shardLeaseService", shardLeaseService);
+                    ctx.getBeanFactory().registerSingleton("userService", mock(UserService.class));
+                })
+                .run();
+        schedulerService = context.getBean(SchedulerService.class);
+        userRepository = context.getBean(UserRepository.class);
+        subscriptionRepository = context.getBean(SubscriptionRepository.class);
+        outboxRepository = context.getBean(OutboxRepository.class);
+    }
+
+    @AfterEach
+    void tearDown() {
+        context.close();
+    }
+
+    @Test
+    void whenRecipientFailsInFirstBlockAndSucceedsInSecond_thenCursorStaysBeforeDroppedArticle() {
+        // Setup: a subscriber behind two articles, each distributed in its own block
+        saveSubscriber(1L);
+        Instant first = LAST_READ.plusSeconds(600);
+        Instant second = LAST_READ.plusSeconds(1200);
+        when(newsFetcher.fetchNews(any())).thenAnswer(invocation -> Stream.of(
+                article(1L, first),
+                article(2L, second)
+        ));
+        int[] blockNumber = {0};
+
+        // Execute: sending the first block fails with a transient error, sending the second one succeeds
+        schedulerService.enqueueScheduledNewsUpdate(List.of(), blockCount -> {
+            List<OutboxMessage> batch = schedulerService.loadPendingDeliveries();
+            DispatchResult result = new DispatchResult();
+            if (++blockNumber[0] == 1) {
+                assertEquals(List.of(first), cursorTargetsOf(batch));
+                result.registerFailed(1L);
+            } else {
+                assertEquals(List.of(second), cursorTargetsOf(batch), "Dropped messages should not be sent again.");
+                schedulerService.composeReplies(batch).forEach(result::registerDelivered);
+            }
+            schedulerService.completeDeliveries(batch, result);
+        });
+
+        // Verify the cursor didn't pass the dropped article, so the next run fetches it again
+        Subscription subscription = subscriptionRepository.findAll().iterator().next();
+        assertEquals(LAST_READ, subscription.getLastReadId().toInstant().truncatedTo(ChronoUnit.SECONDS));
+        assertFalse(schedulerService.hasPendingDeliveries());
+
+        // Verify the run's messages are removed once it completes
+        schedulerService.purgeCompletedMessages();
+        assertEquals(0, outboxRepository.count());
+    }
+
+    private void saveSubscriber(Long userId) {
+        User user = new User(userId);
+        user.setUserRole(UserRole.USER);
+        Subscription subscription = new Subscription(user, NewsProvider.NASA);
+        subscription.setLastReadId(LAST_READ.atZone(ZoneOffset.UTC));
+        user.addSubscription(subscription);
+        userRepository.save(user);
+    }
+
+    private static News article(long id, Instant publishedAt) {
+        News article = new News();
+        article.setId(id);
+        article.setTitle("Article " + id);
+        article.setProvider(NewsProvider.NASA.getApiName());
+        article.setPublishedAt(publishedAt);
+        return article;
+    }
+
+    private static List<Instant> cursorTargetsOf(List<OutboxMessage> batch) {
+        return batch.stream()
+                .map(message -> message.getCursorTarget().toInstant())
+                .collect(Collectors.toList());
+    }
+
+}
@@ -0,0 +1,126 @@
+package com.uvarchev.javatelebot.service;
+
+import com.uvarchev.javatelebot.dto.UserProfile;
+import com.uvarchev.javatelebot.entity.Subscription;
+import com.uvarchev.javatelebot.entity.User;
+import com.uvarchev.javatelebot.enums.NewsProvider;
+import com.uvarchev.javatelebot.enums.UserRole;
+import com.uvarchev.javatelebot.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Migrates users stored without the bitmask of active providers in an embedded H2 database.
+ */
+class ProviderMaskMigrationTest {
+
+    @Configuration
+    @EnableAutoConfiguration
+    @EntityScan(basePackageClasses = User.class)
+    @EnableJpaRepositories(basePackageClasses = UserRepository.class)
+    @Import(ProviderMaskMigration.class)
+    static class MigrationConfig {
+    }
+
+    private ConfigurableApplicationContext context;
+    private UserRepository userRepository;
+    private JdbcTemplate jdbcTemplate;
+    private ProviderMaskMigration migration;
+
+    @BeforeEach
+    void setUp() {
+        context = new SpringApplicationBuilder(MigrationConfig.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        // Skip the application's own configuration
+                        "spring.config.name=provider-mask-test",
+                        "spring.datasource.url=jdbc:h2:mem:" + UUID.randomUUID() + ";MODE=MySQL;DB_CLOSE_DELAY=-1",
+                        "spring.jpa.hibernate.ddl-auto=update",
+                        "telebot.users.migration-batch-size=2"
+                )
+                .run();
+        userRepository = context.getBean(UserRepository.class);
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+        migration = context.getBean(ProviderMaskMigration.class);
+    }
+
+    @AfterEach
+    void tearDown() {
+        context.close();
+    }
+
+    @Test
+    void migrate_computesBitmaskFromActiveSubscriptions() {
+        // Setup: users stored before the bitmask was introduced
+        saveUser(1L, NewsProvider.NASA, NewsProvider.SPACENEWS);
+        saveUser(2L);
+        saveUser(3L, NewsProvider.ARSTECHNICA);
+        jdbcTemplate.update("UPDATE subscriptions SET is_active = false WHERE subs_service = 'SPACENEWS'");
+        jdbcTemplate.update("UPDATE users SET active_providers = NULL");
+
+        // Execute
+        int migrated = migration.migrate();
+
+        // Verify
+        assertEquals(3, migrated);
+        assertEquals(NewsProvider.NASA.getMask(), userRepository.findProfileById(1L).orElseThrow().getActiveProviderMask());
+        assertEquals(0, userRepository.findProfileById(2L).orElseThrow().getActiveProviderMask());
+        assertEquals(NewsProvider.ARSTECHNICA.getMask(), userRepository.findProfileById(3L).orElseThrow().getActiveProviderMask());
+        assertEquals(0, migration.migrate(), "A completed migration should do nothing.");
+    }
+
+    @Test
+    void findProfileById_readsRoleAndBitmaskOfMigratedUsersOnly() {
+        // Setup
+        saveUser(1L, NewsProvider.NASA);
+        saveUser(2L, NewsProvider.NASA);
+        jdbcTemplate.update("UPDATE users SET active_providers = NULL WHERE id = 2");
+
+        // Execute
+        Optional<UserProfile> migrated = userRepository.findProfileById(1L);
+        Optional<UserProfile> notMigrated = userRepository.findProfileById(2L);
+
+        // Verify
+        assertEquals(UserRole.USER, migrated.orElseThrow().getUserRole());
+        assertEquals(NewsProvider.NASA.getMask(), migrated.orElseThrow().getActiveProviderMask());
+        assertTrue(notMigrated.isEmpty());
+    }
+
+    @Test
+    void deactivateUserByUserId_clearsBitmask() {
+        // Setup
+        saveUser(1L, NewsProvider.NASA, NewsProvider.SPACE_SCOUT);
+
+        // Execute
+        userRepository.deactivateUserByUserId(1L);
+
+        // Verify
+        UserProfile profile = userRepository.findProfileById(1L).orElseThrow();
+        assertEquals(UserRole.UNAUTHORISED, profile.getUserRole());
+        assertEquals(0, profile.getActiveProviderMask());
+    }
+
+    private void saveUser(Long userId, NewsProvider... providers) {
+        User user = new User(userId);
+        for (NewsProvider provider : providers) {
+            user.addSubscription(new Subscription(user, provider));
+        }
+        userRepository.save(user);
+    }
+
+}
@@ -0,0 +1,106 @@
+package com.uvarchev.javatelebot.service;
+
+import com.uvarchev.javatelebot.dto.ProviderSelection;
+import com.uvarchev.javatelebot.enums.NewsProvider;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Compares provider resolution against the valueOf and exception based parsing it replaced.
+ * Run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+class ProviderResolverBenchmarkTest {
+
+    private static final int ITERATIONS = 200_000;
+    private static final int ROUNDS = 6;
+    private static final List<String> MESSAGES = List.of(
+            "/subscribe nasa spacenews arstechnica",
+            "/subscribe nasa foo bar baz spacenews qux",
+            "/unsubscribe all"
+    );
+
+    private final ProviderResolver providerResolver = new ProviderResolver();
+
+    @Test
+    void resolver_selectsSameProvidersAsLegacyParsing() {
+        for (String message : MESSAGES) {
+            // Verify both paths select the same providers before timing them
+            assertEquals(List.copyOf(legacyResolve(message, new StringBuilder())),
+                    List.copyOf(providerResolver.resolve(message).getProviders()), message);
+
+            for (int round = 1; round <= ROUNDS; round++) {
+                // Execute
+                long sink = 0;
+                long legacyStart = System.nanoTime();
+                for (int i = 0; i < ITERATIONS; i++) {
+                    StringBuilder helpMessage = new StringBuilder();
+                    sink += legacyResolve(message, helpMessage).size() + helpMessage.length();
+                }
+                long legacyNanos = System.nanoTime() - legacyStart;
+
+                long resolverStart = System.nanoTime();
+                for (int i = 0; i < ITERATIONS; i++) {
+                    ProviderSelection selection = providerResolver.resolve(message);
+                    sink += selection.getProviders().size() + selection.getUnrecognisedOptions().size();
+                }
+                long resolverNanos = System.nanoTime() - resolverStart;
+
+                // Verify
+                assertTrue(sink > 0);
+                System.out.printf("Round %d, \"%s\": legacy %.0f ns/op, resolver %.0f ns/op%n",
+                        round, message, (double) legacyNanos / ITERATIONS, (double) resolverNanos / ITERATIONS);
+            }
+        }
+    }
+
+    /**
+     * Resolves providers the way SubscriptionService did before the resolver: the message is split,
+     * each token is checked with valueOf and a caught exception twice, and "ALL" is searched twice.
+     */
+    private static Set<NewsProvider> legacyResolve(String message, StringBuilder helpMessage) {
+        String[] commandLineArgs = message.toUpperCase().split("\\s+");
+
+        // Extract requested providers
+        Set<NewsProvider> providers;
+        if (Arrays.asList(commandLineArgs).contains("ALL")) {
+            providers = Arrays.stream(NewsProvider.values())
+                    .collect(Collectors.toCollection(LinkedHashSet::new));
+        } else {
+            providers = Arrays.stream(commandLineArgs)
+                    .filter(arg -> !arg.startsWith("/") && isValidOption(arg))
+                    .map(NewsProvider::valueOf)
+                    .collect(Collectors.toCollection(LinkedHashSet::new));
+        }
+
+        // Collect unrecognised options for the help message
+        if (!Arrays.asList(commandLineArgs).contains("ALL")) {
+            String unrecognisedOptions = Arrays.stream(commandLineArgs)
+                    .filter(arg -> !arg.startsWith("/") && !isValidOption(arg))
+                    .collect(Collectors.joining(", "));
+            if (!unrecognisedOptions.isEmpty()) {
+                helpMessage.append("Some options were not recognised: ").append(unrecognisedOptions).append("\n");
+            }
+        }
+
+        return providers;
+    }
+
+    private static boolean isValidOption(String option) {
+        try {
+            NewsProvider.valueOf(option);
+            return true;
+        } catch (IllegalArgumentException ignored) {
+            return false;
+        }
+    }
+
+}
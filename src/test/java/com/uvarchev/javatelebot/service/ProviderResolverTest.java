@@ -0,0 +1,87 @@
+package com.uvarchev.javatelebot.service;
+
+import com.uvarchev.javatelebot.dto.ProviderSelection;
+import com.uvarchev.javatelebot.enums.NewsProvider;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProviderResolverTest {
+
+    private final ProviderResolver providerResolver = new ProviderResolver();
+
+    @Test
+    void resolve_acceptsNamesApiNamesAndAliasesInAnyCase() {
+        // Execute
+        ProviderSelection selection = providerResolver.resolve(
+                "/subscribe nasa Space_Scout SpacePolicyOnline.com nsf ARS nasa"
+        );
+
+        // Verify providers are kept once, in the requested order
+        assertEquals(
+                List.of(NewsProvider.NASA, NewsProvider.SPACE_SCOUT, NewsProvider.SPACEPOLICYONLINE,
+                        NewsProvider.NASASPACEFLIGHT, NewsProvider.ARSTECHNICA),
+                List.copyOf(selection.getProviders())
+        );
+        assertTrue(selection.getUnrecognisedOptions().isEmpty());
+    }
+
+    @Test
+    void resolve_suggestsNearestMatchesForUnrecognisedOptions() {
+        // Execute
+        ProviderSelection selection = providerResolver.resolve("/unsubscribe  NSAA\tarstehcnica xyz ...");
+
+        // Verify
+        Map<String, NewsProvider> unrecognised = selection.getUnrecognisedOptions();
+        assertTrue(selection.getProviders().isEmpty());
+        assertEquals(List.of("NSAA", "ARSTEHCNICA", "XYZ", "..."), List.copyOf(unrecognised.keySet()));
+        assertEquals(NewsProvider.NASA, unrecognised.get("NSAA"));
+        assertEquals(NewsProvider.ARSTECHNICA, unrecognised.get("ARSTEHCNICA"));
+        assertNull(unrecognised.get("XYZ"));
+        assertNull(unrecognised.get("..."));
+    }
+
+    @Test
+    void resolve_selectsAllProvidersForAllOption() {
+        // Execute
+        ProviderSelection selection = providerResolver.resolve("/subscribe unknown all");
+
+        // Verify
+        assertEquals(Arrays.asList(NewsProvider.values()), List.copyOf(selection.getProviders()));
+        assertTrue(selection.getUnrecognisedOptions().isEmpty());
+        assertEquals(2, ProviderResolver.editDistance("NASA", "NSAA", 3));
+        assertEquals(1, ProviderResolver.editDistance("NASA", "SPACENEWS", 1));
+    }
+
+    @Test
+    void resolve_neverThrowsOnGarbageInput() {
+        // Setup: edge cases and random strings of letters, digits, symbols, whitespace and surrogate pairs
+        List<String> messages = new java.util.ArrayList<>(List.of(
+                "", " ", "\t\n", "/", "/subscribe", "/subscribe /", "//", "ALL ALL", "_.-", "\u0000\u0001",
+                "/subscribe \uD83D\uDE80 \uD83D", "/subscribe \u0131 \u00DF \u0130", "x".repeat(10_000)
+        ));
+        String alphabet = "aZ0_./- \t\n\u00DF\u0131\u0130\u00E9\uD83D\uDE80\u0000";
+        Random random = new Random(7);
+        for (int i = 0; i < 2_000; i++) {
+            StringBuilder message = new StringBuilder();
+            int length = random.nextInt(40);
+            for (int j = 0; j < length; j++) {
+                message.append(alphabet.charAt(random.nextInt(alphabet.length())));
+            }
+            messages.add(message.toString());
+        }
+
+        // Execute and verify
+        for (String message : messages) {
+            ProviderSelection selection = assertDoesNotThrow(() -> providerResolver.resolve(message), message);
+            assertNotNull(selection.getProviders());
+            assertNotNull(selection.getUnrecognisedOptions());
+        }
+    }
+
+}
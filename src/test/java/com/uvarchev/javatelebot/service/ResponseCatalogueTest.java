@@ -0,0 +1,56 @@
+package com.uvarchev.javatelebot.service;
+
+import com.uvarchev.javatelebot.enums.NewsProvider;
+import com.uvarchev.javatelebot.enums.UserRole;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResponseCatalogueTest {
+
+    private final ResponseCatalogue responseCatalogue = new ResponseCatalogue();
+
+    @Test
+    void getSubscriptions_listsActiveAndAvailableProviders() {
+        // Setup
+        int mask = NewsProvider.NASA.getMask() | NewsProvider.SPACENEWS.getMask();
+
+        // Execute
+        String response = responseCatalogue.getSubscriptions(mask, "TestUser");
+
+        // Verify
+        assertEquals("Your active subscriptions are:\n" +
+                "- NASA\n" +
+                "- SPACENEWS\n" +
+                "\nAvailable subscriptions for you:\n" +
+                "ARSTECHNICA, EUROPEAN_SPACEFLIGHT, NASASPACEFLIGHT, SPACEPOLICYONLINE, SPACE_SCOUT.", response);
+        assertSame(response, responseCatalogue.getSubscriptions(mask, "OtherUser"),
+                "Replies without a user name should be shared.");
+    }
+
+    @Test
+    void getSubscriptions_splicesUserNameWhenNothingIsSubscribed() {
+        // Setup
+        int allProviders = (1 << NewsProvider.values().length) - 1;
+
+        // Execute
+        String empty = responseCatalogue.getSubscriptions(0, "TestUser");
+        String full = responseCatalogue.getSubscriptions(allProviders, "TestUser");
+
+        // Verify
+        assertTrue(empty.startsWith("Unfortunately, TestUser, you currently don't have any active subscriptions.\n"));
+        assertTrue(full.endsWith("\nYou have subscribed to all available providers.\n"));
+        assertEquals("", responseCatalogue.getUserOptions(0));
+        assertEquals("Available options are: NASA, or ALL.", responseCatalogue.getUserOptions(NewsProvider.NASA.getMask()));
+    }
+
+    @Test
+    void getCommandsForUserRole_listsCommandsAllowedForRole() {
+        // Execute & Verify
+        assertEquals("/start", responseCatalogue.getCommandsForUserRole(UserRole.UNAUTHORISED));
+        assertEquals("/start, /stop, /subscribe, /unsubscribe, /subscriptions",
+                responseCatalogue.getCommandsForUserRole(UserRole.USER));
+        assertTrue(responseCatalogue.getCommandsForUserRole(UserRole.ADMIN).contains("/statistics"));
+    }
+
+}
@@ -1,21 +1,42 @@
 package com.uvarchev.javatelebot.service;
 
+import com.uvarchev.javatelebot.dto.DispatchResult;
+import com.uvarchev.javatelebot.dto.DistributionResult;
+import com.uvarchev.javatelebot.dto.News;
 import com.uvarchev.javatelebot.dto.Reply;
-import com.uvarchev.javatelebot.entity.Subscription;
+import com.uvarchev.javatelebot.dto.SubscriptionCursor;
+import com.uvarchev.javatelebot.dto.SubscriptionRow;
+import com.uvarchev.javatelebot.entity.OutboxBody;
+import com.uvarchev.javatelebot.entity.OutboxMessage;
 import com.uvarchev.javatelebot.entity.User;
+import com.uvarchev.javatelebot.enums.NewsProvider;
 import com.uvarchev.javatelebot.enums.UserRole;
+import com.uvarchev.javatelebot.network.NewsFetcher;
+import com.uvarchev.javatelebot.repository.OutboxBodyRepository;
+import com.uvarchev.javatelebot.repository.OutboxRepository;
 import com.uvarchev.javatelebot.repository.SubscriptionRepository;
 import com.uvarchev.javatelebot.repository.UserRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Instant;
+import java.time.ZoneOffset;
 import java.time.ZonedDateTime;
 import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
 class SchedulerServiceTest {
@@ -29,12 +50,57 @@ class SchedulerServiceTest {
     @Mock
     private UserService userService;
 
+    @Mock
+    private OutboxRepository outboxRepository;
+
+    @Mock
+    private OutboxBodyRepository outboxBodyRepository;
+
+    @Mock
+    private DigestComposer digestComposer;
+
+    @Mock
+    private UserPreloadCache userPreloadCache;
+
+    @Mock
+    private StatisticsRegistry statisticsRegistry;
+
+    @Mock
+    private NewsFetcher newsFetcher;
+
+    @Mock
+    private ShardLeaseService shardLeaseService;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Spy
+    private SeenArticleStore seenArticleStore = new SeenArticleStore(100);
+
     @InjectMocks
     private SchedulerService schedulerService;
 
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(schedulerService, "pageSize", 1000);
+        ReflectionTestUtils.setField(schedulerService, "articleBlockSize", 500);
+        ReflectionTestUtils.setField(schedulerService, "bulkUpdateChunkSize", 1000);
+
+        // Run transaction callbacks in place
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null)
+        );
+        when(shardLeaseService.getOwnedShards()).thenReturn(Set.of(0));
+        when(shardLeaseService.getShardCount()).thenReturn(1);
+
+        // Assign ids to stored message bodies
+        long[] bodyIds = {100};
+        when(outboxBodyRepository.save(any(OutboxBody.class))).thenAnswer(invocation -> {
+            OutboxBody body = invocation.getArgument(0);
+            body.setId(bodyIds[0]++);
+            return body;
+        });
     }
 
     @Test
@@ -91,51 +157,408 @@ class SchedulerServiceTest {
         replies.forEach(reply -> assertEquals(statisticsMessage, reply.getMessageBody(), "Messages should contain the statistics."));
     }
 
+    @Test
+    void getDailyStatistics_reconcilesStatisticsBeforeComposingReport() {
+        // Setup
+        User admin = new User();
+        admin.setTelegramId(123L);
+        when(userRepository.getUsersByUserRole(UserRole.ADMIN)).thenReturn(List.of(admin));
+        when(userService.getAdminStatistics()).thenReturn("Daily Stats");
+
+        // Execute
+        schedulerService.getDailyStatistics();
+
+        // Verify figures of other nodes are read before the report is composed
+        InOrder inOrder = inOrder(statisticsRegistry, userService);
+        inOrder.verify(statisticsRegistry).reconcile();
+        inOrder.verify(userService).getAdminStatistics();
+    }
+
     @Test
     void updateSubscriptionListLastReadTime_updatesLastReadIdForAllProvidedSubscriptions() {
-        // Mocking the subscriptions to be updated
-        Subscription sub1 = new Subscription();
-        Subscription sub2 = new Subscription();
-        Set<Long> ids = new HashSet<>();
-        ids.add(1L);
-        ids.add(2L);
+        // Setup
+        Set<Long> ids = new LinkedHashSet<>(List.of(1L, 2L));
         ZonedDateTime updateTime = ZonedDateTime.now();
 
-        // Assuming findAllById would return the given subscriptions
-        when(subscriptionRepository.findAllById(ids)).thenReturn(Arrays.asList(sub1, sub2));
+        // Execute
+        schedulerService.updateSubscriptionListLastReadTime(ids, updateTime);
+
+        // Verify a single set-based update is issued for all subscriptions
+        verify(subscriptionRepository).updateLastReadIdByIds(List.of(1L, 2L), updateTime);
+        verify(subscriptionRepository, never()).saveAll(any());
+    }
 
+    @Test
+    void updateSubscriptionListLastReadTime_splitsIdsIntoChunks() {
+        // Setup
+        Set<Long> ids = new LinkedHashSet<>();
+        for (long id = 1; id <= 2500; id++) {
+            ids.add(id);
+        }
+        ZonedDateTime updateTime = ZonedDateTime.now();
+
+        // Execute
         schedulerService.updateSubscriptionListLastReadTime(ids, updateTime);
 
-        // Verify saveAll is called with updated subscriptions
-        verify(subscriptionRepository).saveAll(argThat(subscriptions -> {
-            // Casting for simplicity; use a safer check in production code
-            List<Subscription> subs = (List<Subscription>) subscriptions;
-            return subs.stream().allMatch(subscription -> updateTime.equals(subscription.getLastReadId()));
-        }));
+        // Verify
+        verify(subscriptionRepository, times(3)).updateLastReadIdByIds(anyCollection(), eq(updateTime));
     }
 
     @Test
     void incrementReplyCount_incrementsArticlesReceivedForAllProvidedUsers() {
-        // Assuming users with initial articles received
-        User user1 = new User(); user1.setArticlesReceived(10);
-        User user2 = new User(); user2.setArticlesReceived(5);
+        // Setup
         Map<Long, Long> increments = new HashMap<>();
-        increments.put(user1.getTelegramId(), 2L);
-        increments.put(user2.getTelegramId(), 3L);
-
-        // Assuming findAllById would return the given users
-        when(userRepository.findAllById(increments.keySet())).thenReturn(Arrays.asList(user1, user2));
+        increments.put(1L, 2L);
+        increments.put(2L, 3L);
+        increments.put(3L, 2L);
 
+        // Execute
         schedulerService.incrementReplyCount(increments);
 
-        // Verify saveAll is called with users having updated articlesReceived counts
-        verify(userRepository).saveAll(argThat(users -> {
-            // Casting for simplicity; use a safer check in production code
-            List<User> userUpdates = (List<User>) users;
-            return userUpdates.stream().allMatch(user ->
-                    increments.get(user.getTelegramId()) + (user.getTelegramId().equals(user1.getTelegramId()) ? 10 : 5) == user.getArticlesReceived()
-            );
-        }));
+        // Verify users with equal increments are updated together
+        verify(userRepository).incrementArticlesReceived(eq(2L), argThat(ids -> Set.copyOf(ids).equals(Set.of(1L, 3L))));
+        verify(userRepository).incrementArticlesReceived(3L, List.of(2L));
+        verify(userRepository, never()).saveAll(any());
+    }
+
+    @Test
+    void composeReplies_convertsOutboxMessagesToReplies() {
+        // Setup
+        OutboxMessage message = new OutboxMessage(123L, 10L, 100L, ZonedDateTime.now());
+        message.setId(1L);
+        OutboxBody body = new OutboxBody("Article");
+        body.setId(100L);
+        when(outboxBodyRepository.findAllById(Set.of(100L))).thenReturn(List.of(body));
+        when(digestComposer.compose(any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Execute
+        Queue<Reply> replies = schedulerService.composeReplies(List.of(message));
+
+        // Verify
+        Reply reply = replies.poll();
+        assertNotNull(reply);
+        assertEquals(123L, reply.getUserId());
+        assertEquals("Article", reply.getMessageBody());
+        assertEquals(List.of(10L), reply.getSubscriptionIds());
+        assertEquals(List.of(1L), reply.getOutboxIds());
+        assertEquals(1, reply.getArticleCount());
+    }
+
+    @Test
+    void enqueueScheduledNewsUpdate_setsCursorTargetOfEachMessageToItsArticle() {
+        // Setup: a subscription behind two articles of the same block
+        Instant first = Instant.parse("2024-05-01T10:00:00Z");
+        Instant second = Instant.parse("2024-05-01T11:00:00Z");
+        givenSubscriptions(new SubscriptionRow(10L, 123L, NewsProvider.NASA, first.minusSeconds(60).atZone(ZoneOffset.UTC)));
+        givenArticles(article(1L, NewsProvider.NASA, first), article(2L, NewsProvider.NASA, second));
+
+        // Execute
+        DistributionResult result = schedulerService.enqueueScheduledNewsUpdate(List.of(), blockCount -> {
+        });
+
+        // Verify a partially delivered block can't advance the cursor past an undelivered article
+        assertEquals(2, result.getEnqueuedCount());
+        assertEquals(Map.of(NewsProvider.NASA, second), result.getLatestPublishedAt());
+        List<OutboxMessage> messages = savedOutboxMessages();
+        assertEquals(2, messages.size());
+        assertEquals(first, messages.get(0).getCursorTarget().toInstant());
+        assertEquals(second, messages.get(1).getCursorTarget().toInstant());
+    }
+
+    @Test
+    void enqueueScheduledNewsUpdate_skipsSubscriptionsReadAtOrAfterArticle() {
+        // Setup: subscriptions last read before, exactly at and after the article's publish time
+        Instant publishedAt = Instant.parse("2024-05-01T10:00:00Z");
+        givenSubscriptions(
+                new SubscriptionRow(10L, 123L, NewsProvider.NASA, publishedAt.plusSeconds(60).atZone(ZoneOffset.UTC)),
+                new SubscriptionRow(11L, 456L, NewsProvider.NASA, publishedAt.atZone(ZoneOffset.UTC)),
+                new SubscriptionRow(12L, 789L, NewsProvider.NASA, publishedAt.minusMillis(1).atZone(ZoneOffset.UTC))
+        );
+        givenArticles(article(1L, NewsProvider.NASA, publishedAt));
+
+        // Execute
+        int enqueuedCount = schedulerService.enqueueScheduledNewsUpdate(List.of(), blockCount -> {
+        }).getEnqueuedCount();
+
+        // Verify only the subscription read strictly before the article receives it
+        assertEquals(1, enqueuedCount);
+        assertEquals(List.of(12L), subscriptionIdsOf(savedOutboxMessages()));
+    }
+
+    @Test
+    void enqueueScheduledNewsUpdate_handlesCursorsBeforeAndAfterAllArticles() {
+        // Setup: one subscription behind all articles, one ahead of all of them
+        Instant first = Instant.parse("2024-05-01T10:00:00Z");
+        givenSubscriptions(
+                new SubscriptionRow(10L, 123L, NewsProvider.NASA, first.plusSeconds(7200).atZone(ZoneOffset.UTC)),
+                new SubscriptionRow(11L, 456L, NewsProvider.NASA, first.minusSeconds(7200).atZone(ZoneOffset.UTC))
+        );
+        givenArticles(
+                article(1L, NewsProvider.NASA, first),
+                article(2L, NewsProvider.NASA, first.plusSeconds(60)),
+                article(3L, NewsProvider.NASA, first.plusSeconds(120))
+        );
+
+        // Execute
+        int enqueuedCount = schedulerService.enqueueScheduledNewsUpdate(List.of(), blockCount -> {
+        }).getEnqueuedCount();
+
+        // Verify
+        assertEquals(3, enqueuedCount);
+        assertEquals(List.of(11L, 11L, 11L), subscriptionIdsOf(savedOutboxMessages()));
+    }
+
+    @Test
+    void enqueueScheduledNewsUpdate_skipsProvidersWithoutArticlesOrSubscriptions() {
+        // Setup: NASA has subscriptions but no articles, SPACENEWS has articles but no subscriptions
+        Instant publishedAt = Instant.parse("2024-05-01T10:00:00Z");
+        givenSubscriptions(new SubscriptionRow(10L, 123L, NewsProvider.NASA, publishedAt.minusSeconds(60).atZone(ZoneOffset.UTC)));
+        givenArticles(article(1L, NewsProvider.SPACENEWS, publishedAt));
+
+        // Execute
+        int enqueuedCount = schedulerService.enqueueScheduledNewsUpdate(List.of(), blockCount -> {
+        }).getEnqueuedCount();
+
+        // Verify nothing is rendered or stored
+        assertEquals(0, enqueuedCount);
+        assertTrue(savedOutboxMessages().isEmpty());
+        verify(outboxBodyRepository, never()).save(any(OutboxBody.class));
+    }
+
+    @Test
+    void enqueueScheduledNewsUpdate_selectsSameRecipientsAsFullScan() {
+        // Setup: subscriptions of all providers with last read times scattered around the articles
+        Random random = new Random(42);
+        Instant start = Instant.parse("2024-05-01T10:00:00Z");
+        NewsProvider[] providers = NewsProvider.values();
+        List<SubscriptionRow> rows = new ArrayList<>();
+        for (long id = 1; id <= 300; id++) {
+            ZonedDateTime lastRead = start.plusSeconds(random.nextInt(3600) - 600).atZone(ZoneOffset.UTC);
+            rows.add(new SubscriptionRow(id, id, providers[random.nextInt(providers.length)], lastRead));
+        }
+        List<News> articles = new ArrayList<>();
+        for (long id = 1; id <= 20; id++) {
+            articles.add(article(id, providers[random.nextInt(providers.length)], start.plusSeconds(id * 120)));
+        }
+        givenSubscriptions(rows.toArray(SubscriptionRow[]::new));
+        givenArticles(articles.toArray(News[]::new));
+
+        // Expected recipients: every subscription of the article's provider last read before it
+        Set<String> expected = new HashSet<>();
+        for (News article : articles) {
+            rows.stream()
+                    .filter(row -> row.getProvider() == NewsProvider.fromApiName(article.getProvider()))
+                    .filter(row -> row.getLastReadMillis() < article.getPublishedAt().toEpochMilli())
+                    .forEach(row -> expected.add(row.getSubscriptionId() + "@" + article.getPublishedAt()));
+        }
+
+        // Execute
+        schedulerService.enqueueScheduledNewsUpdate(List.of(), blockCount -> {
+        });
+
+        // Verify
+        List<OutboxMessage> messages = savedOutboxMessages();
+        Set<String> actual = new HashSet<>();
+        messages.forEach(message -> actual.add(message.getSubscriptionId() + "@" + message.getCursorTarget().toInstant()));
+        assertEquals(expected.size(), messages.size());
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    void enqueueScheduledNewsUpdate_storesEachArticleBodyOnce() {
+        // Setup: three subscribers of the same article
+        Instant publishedAt = Instant.parse("2024-05-01T10:00:00Z");
+        ZonedDateTime lastRead = publishedAt.minusSeconds(60).atZone(ZoneOffset.UTC);
+        givenSubscriptions(
+                new SubscriptionRow(10L, 123L, NewsProvider.NASA, lastRead),
+                new SubscriptionRow(11L, 456L, NewsProvider.NASA, lastRead),
+                new SubscriptionRow(12L, 789L, NewsProvider.NASA, lastRead)
+        );
+        givenArticles(article(1L, NewsProvider.NASA, publishedAt));
+
+        // Execute
+        schedulerService.enqueueScheduledNewsUpdate(List.of(), blockCount -> {
+        });
+
+        // Verify the outbox messages only refer to the single stored body
+        verify(outboxBodyRepository, times(1)).save(any(OutboxBody.class));
+        List<OutboxMessage> messages = savedOutboxMessages();
+        assertEquals(3, messages.size());
+        messages.forEach(message -> assertEquals(100L, message.getBodyId()));
+    }
+
+    @Test
+    void enqueueScheduledNewsUpdate_rendersEachArticleOnceAcrossSubscriptionPages() {
+        // Setup: 25 subscribers read in pages of 10
+        ReflectionTestUtils.setField(schedulerService, "pageSize", 10);
+        Instant publishedAt = Instant.parse("2024-05-01T10:00:00Z");
+        List<SubscriptionRow> rows = new ArrayList<>();
+        for (long id = 1; id <= 25; id++) {
+            rows.add(new SubscriptionRow(id, id, NewsProvider.NASA, publishedAt.minusSeconds(60).atZone(ZoneOffset.UTC)));
+        }
+        when(subscriptionRepository.findActiveSubscriptionRowsAfter(anyLong(), anyInt(), anyCollection(), any()))
+                .thenAnswer(invocation -> rows.stream()
+                        .filter(row -> row.getSubscriptionId() > invocation.<Long>getArgument(0))
+                        .limit(10)
+                        .collect(Collectors.toList()));
+        int[] renderCount = {0};
+        News article = new News() {
+            @Override
+            public String toString() {
+                renderCount[0]++;
+                return super.toString();
+            }
+        };
+        article.setId(1L);
+        article.setProvider(NewsProvider.NASA.getApiName());
+        article.setPublishedAt(publishedAt);
+        givenArticles(article);
+
+        // Execute
+        int enqueuedCount = schedulerService.enqueueScheduledNewsUpdate(List.of(), blockCount -> {
+        }).getEnqueuedCount();
+
+        // Verify a single body is rendered and stored for all recipients
+        assertEquals(25, enqueuedCount);
+        assertEquals(1, renderCount[0]);
+        verify(outboxBodyRepository, times(1)).save(any(OutboxBody.class));
+        savedOutboxMessages().forEach(message -> assertEquals(100L, message.getBodyId()));
+    }
+
+    @Test
+    void purgeCompletedMessages_removesUnreferencedBodies() {
+        // Execute
+        schedulerService.purgeCompletedMessages();
+
+        // Verify
+        verify(outboxRepository).deleteCompleted();
+        verify(outboxBodyRepository).deleteUnreferenced();
+    }
+
+    @Test
+    void completeDeliveries_marksDeliveredAndDropsPendingMessagesOfFailedUsers() {
+        // Setup
+        ZonedDateTime cursorTarget = ZonedDateTime.now().minusMinutes(5);
+        OutboxMessage delivered = new OutboxMessage(123L, 10L, 100L, cursorTarget);
+        delivered.setId(1L);
+        OutboxMessage failed = new OutboxMessage(456L, 20L, 100L, cursorTarget);
+        failed.setId(2L);
+
+        DispatchResult result = new DispatchResult();
+        result.registerDelivered(new Reply(123L, "Article", List.of(10L), 1, List.of(1L)));
+        result.registerFailed(456L);
+
+        // Execute
+        schedulerService.completeDeliveries(List.of(delivered, failed), result);
+
+        // Verify
+        verify(outboxRepository).markDelivered(Set.of(1L));
+        verify(outboxRepository).markDroppedByTelegramIds(Set.of(456L));
+        verify(subscriptionRepository).updateLastReadIdByIds(List.of(10L), cursorTarget);
+        verify(userRepository).incrementArticlesReceived(1L, List.of(123L));
+        verify(statisticsRegistry).recordArticlesSent(1L, cursorTarget);
+    }
+
+    @Test
+    void completeDeliveries_advancesCursorToLatestDeliveredBlock() {
+        // Setup
+        ZonedDateTime firstBlock = ZonedDateTime.now().minusHours(2);
+        ZonedDateTime secondBlock = ZonedDateTime.now().minusHours(1);
+        OutboxMessage first = new OutboxMessage(123L, 10L, 101L, firstBlock);
+        first.setId(1L);
+        OutboxMessage second = new OutboxMessage(123L, 10L, 102L, secondBlock);
+        second.setId(2L);
+        OutboxMessage undelivered = new OutboxMessage(123L, 11L, 103L, secondBlock);
+        undelivered.setId(3L);
+
+        DispatchResult result = new DispatchResult();
+        result.registerDelivered(new Reply(123L, "Article 1", List.of(10L), 1, List.of(1L)));
+        result.registerDelivered(new Reply(123L, "Article 2", List.of(10L), 1, List.of(2L)));
+
+        // Execute
+        schedulerService.completeDeliveries(List.of(first, second, undelivered), result);
+
+        // Verify
+        verify(subscriptionRepository).updateLastReadIdByIds(List.of(10L), secondBlock);
+        verify(subscriptionRepository, times(1)).updateLastReadIdByIds(anyCollection(), any());
+    }
+
+    @Test
+    void completeDeliveries_neverAdvancesCursorPastFirstUndeliveredMessage() {
+        // Setup: the recipient received the first article, sending the second one failed
+        ZonedDateTime firstArticle = ZonedDateTime.now().minusHours(2);
+        ZonedDateTime secondArticle = ZonedDateTime.now().minusHours(1);
+        OutboxMessage delivered = new OutboxMessage(123L, 10L, 101L, firstArticle);
+        delivered.setId(1L);
+        OutboxMessage failed = new OutboxMessage(123L, 10L, 102L, secondArticle);
+        failed.setId(2L);
+        when(outboxRepository.findEarliestPendingByTelegramIds(any()))
+                .thenReturn(List.of(new SubscriptionCursor(10L, secondArticle)));
+
+        DispatchResult result = new DispatchResult();
+        result.registerDelivered(new Reply(123L, "Article 1", List.of(10L), 1, List.of(1L)));
+        result.registerFailed(123L);
+
+        // Execute
+        schedulerService.completeDeliveries(List.of(delivered, failed), result);
+
+        // Verify the cursor stops at the delivered article, the failed one is fetched again next run
+        verify(subscriptionRepository).updateLastReadIdByIds(List.of(10L), firstArticle);
+        verify(outboxRepository).markDroppedByTelegramIds(Set.of(123L));
+    }
+
+    @Test
+    void completeDeliveries_keepsCursorBeforeUndeliveredArticleOfSameTime() {
+        // Setup: two articles published at the same time, only one was delivered
+        ZonedDateTime publishedAt = ZonedDateTime.now().minusHours(1);
+        OutboxMessage delivered = new OutboxMessage(123L, 10L, 101L, publishedAt);
+        delivered.setId(1L);
+        OutboxMessage failed = new OutboxMessage(123L, 10L, 102L, publishedAt);
+        failed.setId(2L);
+        when(outboxRepository.findEarliestPendingByTelegramIds(any()))
+                .thenReturn(List.of(new SubscriptionCursor(10L, publishedAt)));
+
+        DispatchResult result = new DispatchResult();
+        result.registerDelivered(new Reply(123L, "Article 1", List.of(10L), 1, List.of(1L)));
+        result.registerFailed(123L);
+
+        // Execute
+        schedulerService.completeDeliveries(List.of(delivered, failed), result);
+
+        // Verify
+        verify(subscriptionRepository, never()).updateLastReadIdByIds(anyCollection(), any());
+        verify(statisticsRegistry).recordArticlesSent(1L, publishedAt);
+    }
+
+    private void givenSubscriptions(SubscriptionRow... rows) {
+        when(subscriptionRepository.findActiveSubscriptionRowsAfter(anyLong(), anyInt(), anyCollection(), any()))
+                .thenReturn(List.of(rows));
+    }
+
+    private void givenArticles(News... articles) {
+        when(newsFetcher.fetchNews(any())).thenAnswer(invocation -> Stream.of(articles));
+    }
+
+    private static News article(long id, NewsProvider provider, Instant publishedAt) {
+        News article = new News();
+        article.setId(id);
+        article.setTitle("Article " + id);
+        article.setProvider(provider.getApiName());
+        article.setPublishedAt(publishedAt);
+        return article;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Long> subscriptionIdsOf(List<OutboxMessage> messages) {
+        return messages.stream().map(OutboxMessage::getSubscriptionId).collect(Collectors.toList());
+    }
+
+    private List<OutboxMessage> savedOutboxMessages() {
+        ArgumentCaptor<Iterable<OutboxMessage>> captor = ArgumentCaptor.forClass(Iterable.class);
+        verify(outboxRepository, atLeast(0)).saveAll(captor.capture());
+        List<OutboxMessage> messages = new ArrayList<>();
+        captor.getAllValues().forEach(saved -> saved.forEach(messages::add));
+        return messages;
     }
 
 }
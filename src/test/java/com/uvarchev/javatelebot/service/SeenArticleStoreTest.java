@@ -0,0 +1,65 @@
+package com.uvarchev.javatelebot.service;
+
+import com.uvarchev.javatelebot.enums.NewsProvider;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SeenArticleStoreTest {
+
+    private static final Instant ORIGINAL = Instant.parse("2024-01-10T12:00:00Z");
+    private static final Instant REDATED = Instant.parse("2024-01-10T15:00:00Z");
+
+    @Test
+    void newArticle_keepsItsPublishTime() {
+        // Setup
+        SeenArticleStore store = new SeenArticleStore(100);
+
+        // Execute & Verify
+        assertEquals(ORIGINAL, store.recordFirstPublishedAt(NewsProvider.NASA, 1L, ORIGINAL));
+    }
+
+    @Test
+    void redatedArticle_keepsItsFirstPublishTime() {
+        // Setup
+        SeenArticleStore store = new SeenArticleStore(100);
+        store.recordFirstPublishedAt(NewsProvider.NASA, 1L, ORIGINAL);
+
+        // Execute
+        Instant publishedAt = store.recordFirstPublishedAt(NewsProvider.NASA, 1L, REDATED);
+
+        // Verify
+        assertEquals(ORIGINAL, publishedAt);
+        assertEquals(REDATED, store.recordFirstPublishedAt(NewsProvider.SPACENEWS, 1L, REDATED),
+                "Articles of different providers should not be mixed up.");
+    }
+
+    @Test
+    void whenCapacityIsExceeded_thenOldestArticlesAreForgotten() {
+        // Setup
+        SeenArticleStore store = new SeenArticleStore(2);
+        store.recordFirstPublishedAt(NewsProvider.NASA, 1L, ORIGINAL);
+        store.recordFirstPublishedAt(NewsProvider.NASA, 2L, ORIGINAL);
+        store.recordFirstPublishedAt(NewsProvider.NASA, 3L, ORIGINAL);
+
+        // Execute & Verify
+        assertEquals(REDATED, store.recordFirstPublishedAt(NewsProvider.NASA, 1L, REDATED));
+        assertEquals(ORIGINAL, store.recordFirstPublishedAt(NewsProvider.NASA, 3L, REDATED));
+    }
+
+    @Test
+    void recentlySeenArticle_keepsItsFirstPublishTimeWhileManyOthersPass() {
+        // Setup
+        SeenArticleStore store = new SeenArticleStore(2);
+        store.recordFirstPublishedAt(NewsProvider.NASA, 1L, ORIGINAL);
+
+        // Execute: far more articles than the capacity pass, while the first one keeps being seen
+        for (long articleId = 2; articleId <= 1_000; articleId++) {
+            store.recordFirstPublishedAt(NewsProvider.NASA, articleId, ORIGINAL);
+            assertEquals(ORIGINAL, store.recordFirstPublishedAt(NewsProvider.NASA, 1L, REDATED));
+        }
+    }
+
+}
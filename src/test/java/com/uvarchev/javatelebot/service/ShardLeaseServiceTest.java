@@ -0,0 +1,154 @@
+package com.uvarchev.javatelebot.service;
+
+import com.uvarchev.javatelebot.entity.ShardLease;
+import com.uvarchev.javatelebot.repository.ShardLeaseRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs several scheduler nodes as separate application contexts sharing an embedded H2 database.
+ */
+class ShardLeaseServiceTest {
+
+    private static final int SHARD_COUNT = 8;
+
+    @Configuration
+    @EnableAutoConfiguration
+    @EntityScan(basePackageClasses = ShardLease.class)
+    @EnableJpaRepositories(basePackageClasses = ShardLeaseRepository.class)
+    @Import(ShardLeaseService.class)
+    static class NodeConfig {
+    }
+
+    private final String databaseName = "shards-" + UUID.randomUUID();
+    private final List<ConfigurableApplicationContext> nodes = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        nodes.forEach(ConfigurableApplicationContext::close);
+    }
+
+    @Test
+    void twoNodes_splitShardsEqually() {
+        // Setup
+        ShardLeaseService first = startNode();
+        ShardLeaseService second = startNode();
+        first.heartbeat();
+        assertEquals(SHARD_COUNT, first.getOwnedShards().size(), "A single node should hold all shards.");
+
+        // Execute
+        second.heartbeat();
+        first.heartbeat();
+        second.heartbeat();
+
+        // Verify
+        assertEquals(SHARD_COUNT / 2, first.getOwnedShards().size());
+        assertEquals(SHARD_COUNT / 2, second.getOwnedShards().size());
+        assertAllShardsHeldOnce(first, second);
+        assertTrue(first.isLeader() ^ second.isLeader(), "Exactly one node should be the leader.");
+    }
+
+    @Test
+    void whenRunIsInProgress_thenSurplusShardsAreHandedOverOnlyOnceItEnds() {
+        // Setup: the first node holds all shards and starts a run
+        ShardLeaseService first = startNode();
+        ShardLeaseService second = startNode();
+        first.heartbeat();
+        first.beginRun();
+
+        // Execute: the second node joins while the run is in progress
+        second.heartbeat();
+        first.heartbeat();
+        second.heartbeat();
+
+        // Verify no shard changes hands during the run
+        assertEquals(SHARD_COUNT, first.getOwnedShards().size());
+        assertEquals(Set.of(), second.getOwnedShards());
+
+        // Execute: the run ends
+        first.endRun();
+        second.heartbeat();
+
+        // Verify
+        assertEquals(SHARD_COUNT / 2, first.getOwnedShards().size());
+        assertEquals(SHARD_COUNT / 2, second.getOwnedShards().size());
+        assertAllShardsHeldOnce(first, second);
+    }
+
+    @Test
+    void whenNodeStopsHeartbeats_thenItsShardsAreTakenOver() throws InterruptedException {
+        // Setup
+        ShardLeaseService first = startNode();
+        ShardLeaseService second = startNode();
+        first.heartbeat();
+        second.heartbeat();
+        first.heartbeat();
+        second.heartbeat();
+
+        // Execute: the first node dies silently and its leases expire
+        Thread.sleep(2_100);
+        second.heartbeat();
+
+        // Verify
+        assertEquals(Set.of(), first.getOwnedShards(), "A node with lapsed leases should stop processing.");
+        assertEquals(SHARD_COUNT, second.getOwnedShards().size());
+    }
+
+    @Test
+    void whenNodeShutsDown_thenItsShardsAreTakenOverImmediately() {
+        // Setup
+        ShardLeaseService first = startNode();
+        ShardLeaseService second = startNode();
+        first.heartbeat();
+        second.heartbeat();
+        first.heartbeat();
+        second.heartbeat();
+
+        // Execute
+        nodes.get(0).close();
+        second.heartbeat();
+
+        // Verify
+        assertEquals(SHARD_COUNT, second.getOwnedShards().size());
+    }
+
+    private ShardLeaseService startNode() {
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(NodeConfig.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        // Skip the application's own configuration
+                        "spring.config.name=shard-lease-test",
+                        "spring.datasource.url=jdbc:h2:mem:" + databaseName + ";MODE=MySQL;DB_CLOSE_DELAY=-1",
+                        "spring.jpa.hibernate.ddl-auto=update",
+                        "telebot.shard.count=" + SHARD_COUNT,
+                        "telebot.shard.lease-seconds=2"
+                )
+                .run();
+        nodes.add(context);
+        return context.getBean(ShardLeaseService.class);
+    }
+
+    private void assertAllShardsHeldOnce(ShardLeaseService... services) {
+        List<Integer> held = new ArrayList<>();
+        Arrays.stream(services).forEach(service -> held.addAll(service.getOwnedShards()));
+        Collections.sort(held);
+        List<Integer> expected = new ArrayList<>();
+        for (int shardId = 0; shardId < SHARD_COUNT; shardId++) {
+            expected.add(shardId);
+        }
+        assertEquals(expected, held);
+    }
+
+}
@@ -0,0 +1,134 @@
+package com.uvarchev.javatelebot.service;
+
+import com.uvarchev.javatelebot.entity.Subscription;
+import com.uvarchev.javatelebot.entity.User;
+import com.uvarchev.javatelebot.enums.NewsProvider;
+import com.uvarchev.javatelebot.enums.UserRole;
+import com.uvarchev.javatelebot.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Rebuilds and updates the statistics registry against an embedded H2 database.
+ */
+class StatisticsRegistryTest {
+
+    @Configuration
+    @EnableAutoConfiguration
+    @EntityScan(basePackageClasses = User.class)
+    @EnableJpaRepositories(basePackageClasses = UserRepository.class)
+    @Import(StatisticsRegistry.class)
+    static class RegistryConfig {
+    }
+
+    private ConfigurableApplicationContext context;
+    private UserRepository userRepository;
+    private TransactionTemplate transactionTemplate;
+    private StatisticsRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        context = new SpringApplicationBuilder(RegistryConfig.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        // Skip the application's own configuration
+                        "spring.config.name=statistics-test",
+                        "spring.datasource.url=jdbc:h2:mem:" + UUID.randomUUID() + ";MODE=MySQL;DB_CLOSE_DELAY=-1",
+                        "spring.jpa.hibernate.ddl-auto=update"
+                )
+                .run();
+        userRepository = context.getBean(UserRepository.class);
+        transactionTemplate = context.getBean(TransactionTemplate.class);
+        registry = context.getBean(StatisticsRegistry.class);
+    }
+
+    @AfterEach
+    void tearDown() {
+        context.close();
+    }
+
+    @Test
+    void reconcile_rebuildsFiguresFromDatabase() {
+        // Setup
+        saveUser(1L, UserRole.USER, 5L, NewsProvider.NASA, NewsProvider.SPACENEWS);
+        saveUser(2L, UserRole.USER, 3L, NewsProvider.NASA);
+        saveUser(3L, UserRole.UNAUTHORISED, 2L);
+
+        // Execute
+        registry.reconcile();
+
+        // Verify
+        assertEquals(3, registry.getTotalUsers());
+        assertEquals(2, registry.getActiveUsers());
+        assertEquals(3, registry.getActiveSubscriptions());
+        assertEquals(10, registry.getArticlesSent());
+        assertEquals(List.of(NewsProvider.NASA), registry.getTopProviders());
+        assertNotNull(registry.getLastUpdateTime());
+    }
+
+    @Test
+    void reconcile_handlesEmptyDatabase() {
+        // Execute
+        registry.reconcile();
+
+        // Verify
+        assertEquals(0, registry.getTotalUsers());
+        assertEquals(0, registry.getArticlesSent());
+        assertTrue(registry.getTopProviders().isEmpty());
+        assertNull(registry.getLastUpdateTime());
+    }
+
+    @Test
+    void recordedChanges_areAppliedOnlyOnceCommitted() {
+        // Setup
+        registry.reconcile();
+        ZonedDateTime updateTime = ZonedDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+
+        // Execute: one transaction commits, another one rolls back
+        transactionTemplate.executeWithoutResult(status -> {
+            registry.recordUserRegistered();
+            registry.recordSubscriptionActivated(NewsProvider.SPACE_SCOUT);
+            registry.recordArticlesSent(4L, updateTime);
+            assertEquals(0, registry.getTotalUsers(), "Changes should wait for the commit.");
+        });
+        transactionTemplate.executeWithoutResult(status -> {
+            registry.recordUserDeactivated(true, NewsProvider.SPACE_SCOUT.getMask());
+            status.setRollbackOnly();
+        });
+
+        // Verify
+        assertEquals(1, registry.getTotalUsers());
+        assertEquals(1, registry.getActiveUsers());
+        assertEquals(List.of(NewsProvider.SPACE_SCOUT), registry.getTopProviders());
+        assertEquals(4, registry.getArticlesSent());
+        assertTrue(updateTime.isEqual(registry.getLastUpdateTime()));
+    }
+
+    private void saveUser(Long userId, UserRole userRole, long articlesReceived, NewsProvider... providers) {
+        User user = new User(userId);
+        user.setUserRole(userRole);
+        user.setArticlesReceived(articlesReceived);
+        for (NewsProvider provider : providers) {
+            user.addSubscription(new Subscription(user, provider));
+        }
+        userRepository.save(user);
+    }
+
+}
@@ -0,0 +1,106 @@
+package com.uvarchev.javatelebot.service;
+
+import com.uvarchev.javatelebot.dto.News;
+import com.uvarchev.javatelebot.dto.SubscriptionRow;
+import com.uvarchev.javatelebot.enums.NewsProvider;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Compares recipient selection through the provider index against the full scan it replaced,
+ * for 100k subscriptions and 100 articles. Run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+class SubscriptionIndexBenchmarkTest {
+
+    private static final int SUBSCRIPTIONS = 100_000;
+    private static final int ARTICLES = 100;
+    private static final int ROUNDS = 6;
+    private static final Instant START = Instant.parse("2024-05-01T10:00:00Z");
+
+    private final SchedulerService schedulerService = new SchedulerService();
+
+    @Test
+    void providerIndex_selectsSameRecipientsFasterThanFullScan() {
+        // Setup: last read times and publish times spread over two hours
+        Random random = new Random(42);
+        NewsProvider[] providers = NewsProvider.values();
+        List<SubscriptionRow> subscriptions = new ArrayList<>(SUBSCRIPTIONS);
+        for (int i = 0; i < SUBSCRIPTIONS; i++) {
+            ZonedDateTime lastRead = START.plusSeconds(random.nextInt(7200)).atZone(ZoneOffset.UTC);
+            subscriptions.add(new SubscriptionRow((long) i, (long) i, providers[i % providers.length], lastRead));
+        }
+        List<News> articles = new ArrayList<>(ARTICLES);
+        for (int i = 0; i < ARTICLES; i++) {
+            News article = new News();
+            article.setId(i);
+            article.setProvider(providers[random.nextInt(providers.length)].getApiName());
+            article.setPublishedAt(START.plusSeconds(random.nextInt(7200)));
+            articles.add(article);
+        }
+
+        for (int round = 1; round <= ROUNDS; round++) {
+            // Execute
+            long scanStart = System.nanoTime();
+            long scanRecipients = countByFullScan(subscriptions, articles);
+            long scanNanos = System.nanoTime() - scanStart;
+
+            long indexStart = System.nanoTime();
+            long indexRecipients = countByProviderIndex(subscriptions, articles);
+            long indexNanos = System.nanoTime() - indexStart;
+
+            // Verify
+            assertEquals(scanRecipients, indexRecipients);
+            System.out.printf("Round %d: full scan %.1f ms, provider index %.1f ms, %d recipients%n",
+                    round, scanNanos / 1e6, indexNanos / 1e6, indexRecipients);
+        }
+    }
+
+    /**
+     * Counts recipients the way distribution did before the index: every subscription is checked
+     * against every article, comparing api names and parsing the publish time each time.
+     */
+    private static long countByFullScan(List<SubscriptionRow> subscriptions, List<News> articles) {
+        long recipients = 0;
+        for (News article : articles) {
+            for (SubscriptionRow subscription : subscriptions) {
+                if (subscription.getProvider().getApiName().equals(article.getProvider()) &&
+                        ZonedDateTime.parse(article.getPublishedAt().atZone(ZoneOffset.UTC).toString())
+                                .toInstant().toEpochMilli() > subscription.getLastReadMillis()) {
+                    recipients++;
+                }
+            }
+        }
+        return recipients;
+    }
+
+    /**
+     * Counts recipients through the provider index, the way distribution does now.
+     */
+    private long countByProviderIndex(List<SubscriptionRow> subscriptions, List<News> articles) {
+        Map<NewsProvider, List<SubscriptionRow>> index =
+                ReflectionTestUtils.invokeMethod(schedulerService, "indexSubscriptionsByProvider", subscriptions);
+        long recipients = 0;
+        for (News article : articles) {
+            List<SubscriptionRow> bucket = index.get(NewsProvider.fromApiName(article.getProvider()));
+            if (bucket != null) {
+                Integer count = ReflectionTestUtils.invokeMethod(schedulerService, "countReadBefore",
+                        bucket, article.getPublishedAt().toEpochMilli());
+                recipients += count;
+            }
+        }
+        return recipients;
+    }
+
+}
@@ -12,6 +12,7 @@ import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -25,6 +26,18 @@ class SubscriptionServiceTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private UserProfileCache userProfileCache;
+
+    @Mock
+    private StatisticsRegistry statisticsRegistry;
+
+    @Spy
+    private ResponseCatalogue responseCatalogue = new ResponseCatalogue();
+
+    @Spy
+    private ProviderResolver providerResolver = new ProviderResolver();
+
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
@@ -43,6 +56,7 @@ class SubscriptionServiceTest {
 
         // Verify
         verify(userRepository, times(1)).save(any(User.class));
+        verify(statisticsRegistry).recordSubscriptionActivated(NewsProvider.NASA);
 
         // Since processing involves lots of string building, we're checking for a key part of the response
         assertTrue(response.contains("is added to your subscriptions"));
@@ -62,6 +76,20 @@ class SubscriptionServiceTest {
         assertTrue(response.contains("SPACENEWS is added to your subscriptions"), "SPACENEWS subscription should be added successfully.");
     }
 
+    @Test
+    void testAddingSubscriptionWithMisspelledProviderSuggestsNearestMatch() {
+        // Setup
+        User user = new User(12345L);
+        SubscribeCommand command = new SubscribeCommand("/subscribe nasa spacenwes", "TestUser", 12345L);
+
+        // Execute
+        String response = subscriptionService.addSubscription(command, user);
+
+        // Verify
+        assertTrue(response.contains("NASA is added to your subscriptions"));
+        assertTrue(response.contains("Some options were not recognised: SPACENWES (did you mean SPACENEWS?)"));
+    }
+
     @Test
     void testAddingSubscriptionWithNoProvidersSpecified() {
         // Setup
@@ -91,6 +119,7 @@ class SubscriptionServiceTest {
 
         // Verify
         assertFalse(subscription.isActive(), "Subscription should be deactivated.");
+        verify(statisticsRegistry).recordSubscriptionDeactivated(NewsProvider.NASA);
         assertTrue(response.contains("is deactivated"), "Response should indicate deactivation.");
     }
 
@@ -0,0 +1,76 @@
+package com.uvarchev.javatelebot.service;
+
+import com.uvarchev.javatelebot.entity.User;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserPreloadCacheTest {
+
+    private final UserPreloadCache userPreloadCache = new UserPreloadCache(100);
+
+    @Test
+    void take_returnsPreloadedUserOnlyOnce() {
+        // Setup
+        User user = new User(1L);
+        userPreloadCache.put(1L, user, userPreloadCache.getGeneration(1L));
+        userPreloadCache.put(2L, null, userPreloadCache.getGeneration(2L));
+
+        // Execute
+        UserPreloadCache.Entry first = userPreloadCache.take(1L);
+        UserPreloadCache.Entry second = userPreloadCache.take(1L);
+        UserPreloadCache.Entry missing = userPreloadCache.take(2L);
+
+        // Verify
+        assertSame(user, first.getUser());
+        assertNull(second, "Later lookups should go to the database.");
+        assertNotNull(missing, "Users that don't exist should be preloaded as well.");
+        assertNull(missing.getUser());
+    }
+
+    @Test
+    void whenUserChangesWhileBeingLoaded_thenPreloadedCopyIsDiscarded() {
+        // Setup
+        long generation = userPreloadCache.getGeneration(1L);
+
+        // Execute: a command of the user commits between reading the generation and storing the user
+        userPreloadCache.invalidateAfterCommit(1L);
+        userPreloadCache.put(1L, new User(1L), generation);
+
+        // Verify
+        assertNull(userPreloadCache.take(1L));
+    }
+
+    @Test
+    void whenUserChangesAfterBeingPreloaded_thenPreloadedCopyIsDiscarded() {
+        // Setup
+        userPreloadCache.put(1L, new User(1L), userPreloadCache.getGeneration(1L));
+        userPreloadCache.put(2L, new User(2L), userPreloadCache.getGeneration(2L));
+
+        // Execute
+        userPreloadCache.invalidateAfterCommit(List.of(1L));
+
+        // Verify
+        assertNull(userPreloadCache.take(1L));
+        assertNotNull(userPreloadCache.take(2L), "Other users should stay preloaded.");
+    }
+
+    @Test
+    void whenCacheIsFull_thenUnusedUsersAreDropped() {
+        // Setup
+        UserPreloadCache smallCache = new UserPreloadCache(2);
+        smallCache.put(1L, new User(1L), smallCache.getGeneration(1L));
+        smallCache.put(2L, new User(2L), smallCache.getGeneration(2L));
+
+        // Execute
+        smallCache.put(3L, new User(3L), smallCache.getGeneration(3L));
+
+        // Verify
+        assertNull(smallCache.take(1L));
+        assertNotNull(smallCache.take(3L));
+        assertFalse(smallCache.hasCapacity(3));
+    }
+
+}
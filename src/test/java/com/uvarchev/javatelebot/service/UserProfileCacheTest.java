@@ -0,0 +1,74 @@
+package com.uvarchev.javatelebot.service;
+
+import com.uvarchev.javatelebot.dto.UserProfile;
+import com.uvarchev.javatelebot.entity.Subscription;
+import com.uvarchev.javatelebot.entity.User;
+import com.uvarchev.javatelebot.enums.NewsProvider;
+import com.uvarchev.javatelebot.enums.UserRole;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserProfileCacheTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final UserProfileCache userProfileCache = new UserProfileCache(meterRegistry, 100, 300);
+
+    @Test
+    void get_loadsUserOnlyOnMiss() {
+        // Setup
+        User user = new User(1L);
+        user.addSubscription(new Subscription(user, NewsProvider.NASA));
+        AtomicInteger loads = new AtomicInteger();
+
+        // Execute
+        UserProfile first = userProfileCache.get(1L, id -> {
+            loads.incrementAndGet();
+            return UserProfile.of(user);
+        });
+        UserProfile second = userProfileCache.get(1L, id -> {
+            loads.incrementAndGet();
+            return UserProfile.of(user);
+        });
+
+        // Verify
+        assertEquals(1, loads.get());
+        assertSame(first, second);
+        assertEquals(NewsProvider.NASA.getMask(), first.getActiveProviderMask());
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "telebot.users").tag("result", "hit")
+                .functionCounter().count());
+    }
+
+    @Test
+    void whenUserDoesNotExist_thenUnregisteredProfileIsCached() {
+        // Execute
+        UserProfile profile = userProfileCache.get(1L, id -> UserProfile.of(null));
+
+        // Verify
+        assertEquals(UserRole.UNAUTHORISED, profile.getUserRole());
+        assertEquals(0, profile.getActiveProviderMask());
+        assertSame(profile, userProfileCache.get(1L, id -> fail("A cached profile should be used.")));
+    }
+
+    @Test
+    void whenUserChanges_thenCachedProfileIsUpdated() {
+        // Setup
+        User user = new User(1L);
+        userProfileCache.get(1L, id -> UserProfile.of(user));
+
+        // Execute
+        user.addSubscription(new Subscription(user, NewsProvider.SPACENEWS));
+        userProfileCache.putAfterCommit(user);
+        UserProfile updated = userProfileCache.get(1L, id -> fail("A written through profile should be used."));
+        userProfileCache.invalidateAfterCommit(1L);
+        UserProfile reloaded = userProfileCache.get(1L, id -> UserProfile.of(null));
+
+        // Verify
+        assertEquals(NewsProvider.SPACENEWS.getMask(), updated.getActiveProviderMask());
+        assertEquals(UserProfile.UNREGISTERED, reloaded);
+    }
+
+}
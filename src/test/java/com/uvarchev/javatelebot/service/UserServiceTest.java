@@ -2,7 +2,10 @@ package com.uvarchev.javatelebot.service;
 
 import com.uvarchev.javatelebot.command.StartCommand;
 import com.uvarchev.javatelebot.command.StopCommand;
+import com.uvarchev.javatelebot.dto.UserProfile;
+import com.uvarchev.javatelebot.entity.Subscription;
 import com.uvarchev.javatelebot.entity.User;
+import com.uvarchev.javatelebot.enums.NewsProvider;
 import com.uvarchev.javatelebot.enums.UserRole;
 import com.uvarchev.javatelebot.repository.SubscriptionRepository;
 import com.uvarchev.javatelebot.repository.UserRepository;
@@ -16,9 +19,10 @@ import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.time.ZonedDateTime;
 import java.util.Collections;
+import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
-import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -36,6 +40,15 @@ class UserServiceTest {
     @Mock
     private SubscriptionService subscriptionService;
 
+    @Mock
+    private UserPreloadCache userPreloadCache;
+
+    @Mock
+    private UserProfileCache userProfileCache;
+
+    @Mock
+    private StatisticsRegistry statisticsRegistry;
+
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
@@ -127,12 +140,12 @@ class UserServiceTest {
 
     @Test
     void testGetAdminStatistics() {
-        when(userRepository.count()).thenReturn(5L);
-        when(userRepository.countByUserRoleIsNot(any())).thenReturn(4);
-        when(subscriptionRepository.countAllByActiveIs(anyBoolean())).thenReturn(3);
-        when(userRepository.getTotalOfArticlesReceived()).thenReturn(100L);
-        when(subscriptionRepository.findDistinctTopProviders()).thenReturn(Collections.emptyList()); // Simulate no providers found
-        when(subscriptionRepository.getMostRecentReadTime()).thenReturn(ZonedDateTime.now());
+        when(statisticsRegistry.getTotalUsers()).thenReturn(5L);
+        when(statisticsRegistry.getActiveUsers()).thenReturn(4L);
+        when(statisticsRegistry.getActiveSubscriptions()).thenReturn(3L);
+        when(statisticsRegistry.getArticlesSent()).thenReturn(100L);
+        when(statisticsRegistry.getTopProviders()).thenReturn(Collections.emptyList()); // Simulate no providers found
+        when(statisticsRegistry.getLastUpdateTime()).thenReturn(ZonedDateTime.now());
 
         String stats = userService.getAdminStatistics();
 
@@ -144,13 +157,47 @@ class UserServiceTest {
         assertTrue(stats.contains("Top News Provider(s): No active subscriptions"));
         assertTrue(stats.contains("Most recent update: ")); // Check starts of date format
 
-        // Verification of repository method usage
-        verify(userRepository).count();
-        verify(userRepository).countByUserRoleIsNot(any());
-        verify(subscriptionRepository).countAllByActiveIs(true);
-        verify(userRepository).getTotalOfArticlesReceived();
-        verify(subscriptionRepository).findDistinctTopProviders();
-        verify(subscriptionRepository).getMostRecentReadTime();
+        // Verify the report is served without querying the database
+        verifyNoInteractions(userRepository, subscriptionRepository);
+    }
+
+    @Test
+    void testDeactivateUserRemovesItFromStatistics() {
+        long userId = 1L;
+        int activeProviderMask = NewsProvider.NASA.getMask() | NewsProvider.SPACENEWS.getMask();
+        when(userRepository.findProfileById(userId))
+                .thenReturn(Optional.of(new UserProfile(UserRole.USER, activeProviderMask)));
+
+        userService.deactivateUserAndItsSubscriptions(userId);
+
+        verify(statisticsRegistry).recordUserDeactivated(true, activeProviderMask);
+        verify(userRepository).deactivateUserByUserId(userId);
+    }
+
+    @Test
+    void testDeactivateNotMigratedUserRemovesItFromStatistics() {
+        long userId = 1L;
+        User user = new User(userId);
+        user.setUserRole(UserRole.USER);
+        user.addSubscription(new Subscription(user, NewsProvider.NASA));
+        when(userRepository.findProfileById(userId)).thenReturn(Optional.empty());
+        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+
+        userService.deactivateUserAndItsSubscriptions(userId);
+
+        verify(statisticsRegistry).recordUserDeactivated(true, NewsProvider.NASA.getMask());
+        verify(userRepository).deactivateUserByUserId(userId);
+    }
+
+    @Test
+    void testDeactivateUnknownUserLeavesStatisticsUntouched() {
+        long userId = 1L;
+        when(userRepository.findProfileById(userId)).thenReturn(Optional.empty());
+        when(userRepository.findById(userId)).thenReturn(Optional.empty());
+
+        userService.deactivateUserAndItsSubscriptions(userId);
+
+        verify(statisticsRegistry, never()).recordUserDeactivated(anyBoolean(), anyInt());
     }
 
     @Test